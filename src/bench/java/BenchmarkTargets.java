@@ -0,0 +1,69 @@
+import java.util.*;
+
+public class BenchmarkTargets implements bench.MSTTargets {
+    @Override
+    public Object generate(String shape, int edges, long seed) {
+        return GraphGenerators.generate(shape, edges, seed);
+    }
+
+    @Override
+    public Object primLazy(Object graph) {
+        return MSTAlgorithm.primMST((Graph) graph);
+    }
+
+    @Override
+    public Object primEager(Object graph) {
+        return MSTAlgorithm.primEagerMST((Graph) graph);
+    }
+
+    @Override
+    public Object kruskal(Object graph) {
+        return MSTAlgorithm.kruskalMST((Graph) graph);
+    }
+
+    @Override
+    public Object filterKruskal(Object graph) {
+        return MSTAlgorithm.filterKruskalMST((Graph) graph);
+    }
+
+    @Override
+    public Object boruvka(Object graph) {
+        return MSTAlgorithm.boruvkaMST((Graph) graph);
+    }
+
+    @Override
+    public int[] unionPairs(int vertices, int pairs, long seed) {
+        Random random = new Random(seed);
+        int[] packed = new int[2 * pairs];
+        for (int i = 0; i < packed.length; i++) {
+            packed[i] = random.nextInt(vertices);
+        }
+        return packed;
+    }
+
+    @Override
+    public int dsuUnionFind(int vertices, int[] pairs) {
+        DSU dsu = new DSU(vertices);
+        int merged = 0;
+        for (int i = 0; i < pairs.length; i += 2) {
+            if (dsu.union(pairs[i], pairs[i + 1])) {
+                merged++;
+            }
+        }
+        for (int v = 0; v < vertices; v++) {
+            merged += dsu.find(v) & 1;
+        }
+        return merged;
+    }
+
+    @Override
+    public int compactDsuUnionFind(int vertices, int[] pairs) {
+        CompactDSU dsu = new CompactDSU(vertices);
+        int merged = dsu.unionAll(pairs);
+        int[] roots = dsu.findAll();
+        for (int v = 0; v < vertices; v++) {
+            merged += roots[v] & 1;
+        }
+        return merged;
+    }
+}
@@ -0,0 +1,79 @@
+import java.util.*;
+
+// memory and throughput of DSU against CompactDSU without JMH
+public class DSUReport {
+    private static final int CHUNK = 1 << 20;
+
+    // n unions over random pairs, then a find for every vertex
+    public static void main(String[] args) {
+        int[] sizes = args.length > 0
+                ? Arrays.stream(args).mapToInt(Integer::parseInt).toArray()
+                : new int[] { 10_000_000, 50_000_000, 100_000_000 };
+        System.out.println("vertices     structure   heap MB   unions Mops/s   finds Mops/s   sets");
+        for (int n : sizes) {
+            report(n, false);
+            System.gc();
+            report(n, true);
+            System.gc();
+        }
+    }
+
+    private static void report(int n, boolean compact) {
+        Runtime runtime = Runtime.getRuntime();
+        System.gc();
+        long before = runtime.totalMemory() - runtime.freeMemory();
+        DSU dsu = compact ? null : new DSU(n);
+        CompactDSU compactDsu = compact ? new CompactDSU(n) : null;
+        long heap = runtime.totalMemory() - runtime.freeMemory() - before;
+
+        // the same pseudo-random pairs are regenerated chunk by chunk so only the union-find is timed
+        int[] pairs = new int[2 * CHUNK];
+        long state = 42L;
+        long unionNanos = 0;
+        int sets = n;
+        for (long done = 0; done < n; done += CHUNK) {
+            int chunk = (int) Math.min(CHUNK, n - done);
+            for (int i = 0; i < 2 * chunk; i++) {
+                state += 0x9E3779B97F4A7C15L;
+                long z = (state ^ (state >>> 30)) * 0xBF58476D1CE4E5B9L;
+                z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+                pairs[i] = (int) (((z ^ (z >>> 31)) >>> 33) % n);
+            }
+            long start = System.nanoTime();
+            if (compact) {
+                sets -= compactDsu.unionAll(pairs, 0, chunk);
+            } else {
+                for (int i = 0; i < 2 * chunk; i += 2) {
+                    if (dsu.union(pairs[i], pairs[i + 1])) {
+                        sets--;
+                    }
+                }
+            }
+            unionNanos += System.nanoTime() - start;
+        }
+
+        int[] vertices = new int[CHUNK];
+        int[] roots = new int[CHUNK];
+        long findNanos = 0;
+        for (int first = 0; first < n; first += CHUNK) {
+            int chunk = Math.min(CHUNK, n - first);
+            if (chunk < CHUNK) {
+                vertices = Arrays.copyOf(vertices, chunk);
+            }
+            for (int i = 0; i < chunk; i++) {
+                vertices[i] = first + i;
+            }
+            long start = System.nanoTime();
+            if (compact) {
+                compactDsu.findAll(vertices, roots);
+            } else {
+                for (int i = 0; i < chunk; i++) {
+                    roots[i] = dsu.find(vertices[i]);
+                }
+            }
+            findNanos += System.nanoTime() - start;
+        }
+        System.out.println(String.format(Locale.ROOT, "%-12d %-11s %7.0f   %13.1f   %12.1f   %d",
+                n, compact ? "CompactDSU" : "DSU", heap / 1e6, n * 1e3 / unionNanos, n * 1e3 / findNanos, sets));
+    }
+}
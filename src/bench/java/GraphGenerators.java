@@ -0,0 +1,118 @@
+import java.util.*;
+
+public class GraphGenerators {
+    private static final int MAX_WEIGHT = 1000;
+
+    public static Graph generate(String shape, int edges, long seed) {
+        switch (shape) {
+            case "random":
+                return randomSparse(edges, 8, seed);
+            case "grid":
+                return grid(edges, seed);
+            case "complete":
+                return complete(edges, seed);
+            case "powerlaw":
+                return powerLaw(edges, 4, seed);
+            default:
+                throw new IllegalArgumentException("Unknown graph shape: " + shape);
+        }
+    }
+
+    public static Graph randomSparse(int edges, int averageDegree, long seed) {
+        Random random = new Random(seed);
+        int n = Math.max(2, 2 * edges / averageDegree);
+        EdgeArrays out = new EdgeArrays(edges);
+        for (int v = 1; v < n && out.size < edges; v++) {
+            out.add(random.nextInt(v), v, 1 + random.nextInt(MAX_WEIGHT));
+        }
+        while (out.size < edges) {
+            out.add(random.nextInt(n), random.nextInt(n), 1 + random.nextInt(MAX_WEIGHT));
+        }
+        return out.toGraph(n);
+    }
+
+    public static Graph grid(int edges, long seed) {
+        Random random = new Random(seed);
+        int side = Math.max(2, (int) Math.ceil(Math.sqrt(edges / 2.0)));
+        EdgeArrays out = new EdgeArrays(2 * side * (side - 1));
+        for (int row = 0; row < side; row++) {
+            for (int col = 0; col < side; col++) {
+                int v = row * side + col;
+                if (col + 1 < side) {
+                    out.add(v, v + 1, 1 + random.nextInt(MAX_WEIGHT));
+                }
+                if (row + 1 < side) {
+                    out.add(v, v + side, 1 + random.nextInt(MAX_WEIGHT));
+                }
+            }
+        }
+        return out.toGraph(side * side);
+    }
+
+    public static Graph complete(int edges, long seed) {
+        Random random = new Random(seed);
+        int n = Math.max(2, (int) Math.ceil((1 + Math.sqrt(1 + 8.0 * edges)) / 2));
+        EdgeArrays out = new EdgeArrays(n * (n - 1) / 2);
+        for (int u = 0; u < n; u++) {
+            for (int v = u + 1; v < n; v++) {
+                out.add(u, v, 1 + random.nextInt(MAX_WEIGHT));
+            }
+        }
+        return out.toGraph(n);
+    }
+
+    public static Graph powerLaw(int edges, int edgesPerVertex, long seed) {
+        Random random = new Random(seed);
+        int n = Math.max(edgesPerVertex + 1, edges / edgesPerVertex);
+        EdgeArrays out = new EdgeArrays(edges + edgesPerVertex * edgesPerVertex);
+        for (int u = 0; u <= edgesPerVertex; u++) {
+            for (int v = u + 1; v <= edgesPerVertex; v++) {
+                out.add(u, v, 1 + random.nextInt(MAX_WEIGHT));
+            }
+        }
+        for (int v = edgesPerVertex + 1; v < n; v++) {
+            int existing = out.size;
+            for (int i = 0; i < edgesPerVertex; i++) {
+                int endpoint = random.nextInt(2 * existing);
+                int target = endpoint % 2 == 0 ? out.from[endpoint / 2] : out.to[endpoint / 2];
+                out.add(v, target, 1 + random.nextInt(MAX_WEIGHT));
+            }
+        }
+        return out.toGraph(n);
+    }
+
+    private static class EdgeArrays {
+        int[] from;
+        int[] to;
+        int[] weight;
+        int size;
+
+        EdgeArrays(int capacity) {
+            from = new int[Math.max(capacity, 1)];
+            to = new int[from.length];
+            weight = new int[from.length];
+        }
+
+        void add(int u, int v, int w) {
+            if (size == from.length) {
+                from = Arrays.copyOf(from, size * 2);
+                to = Arrays.copyOf(to, size * 2);
+                weight = Arrays.copyOf(weight, size * 2);
+            }
+            from[size] = u;
+            to[size] = v;
+            weight[size] = w;
+            size++;
+        }
+
+        Graph toGraph(int n) {
+            String[] names = new String[n];
+            Map<String, Integer> nameToId = new HashMap<>(n * 2);
+            for (int v = 0; v < n; v++) {
+                names[v] = "v" + v;
+                nameToId.put(names[v], v);
+            }
+            return new Graph(0, new CompactGraph(names, nameToId, from, to, weight, size));
+        }
+    }
+}
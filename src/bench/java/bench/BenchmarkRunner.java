@@ -0,0 +1,19 @@
+package bench;
+
+import org.openjdk.jmh.profile.*;
+import org.openjdk.jmh.runner.*;
+import org.openjdk.jmh.results.format.*;
+import org.openjdk.jmh.runner.options.*;
+
+public class BenchmarkRunner {
+    public static void main(String[] args) throws RunnerException {
+        String include = args.length > 0 ? args[0] : "bench\\..*";
+        Options options = new OptionsBuilder()
+                .include(include)
+                .addProfiler(GCProfiler.class)
+                .resultFormat(ResultFormatType.CSV)
+                .result("bench_results.csv")
+                .build();
+        new Runner(options).run();
+    }
+}
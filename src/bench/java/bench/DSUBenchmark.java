@@ -0,0 +1,34 @@
+package bench;
+
+import java.util.concurrent.*;
+import org.openjdk.jmh.annotations.*;
+
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g", "-Dmst.metrics=off"})
+public class DSUBenchmark {
+    @Param({"1000", "100000", "10000000", "100000000"})
+    public int vertices;
+
+    private MSTTargets targets;
+    private int[] pairs;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        targets = MSTTargets.load();
+        pairs = targets.unionPairs(vertices, vertices, 7L);
+    }
+
+    @Benchmark
+    public int unionFind() {
+        return targets.dsuUnionFind(vertices, pairs);
+    }
+
+    @Benchmark
+    public int compactUnionFind() {
+        return targets.compactDsuUnionFind(vertices, pairs);
+    }
+}
@@ -0,0 +1,52 @@
+package bench;
+
+import java.util.concurrent.*;
+import org.openjdk.jmh.annotations.*;
+
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g", "-Dmst.metrics=off"})
+public class MSTBenchmark {
+    @Param({"random", "grid", "complete", "powerlaw"})
+    public String shape;
+
+    @Param({"1000", "10000", "100000", "1000000", "10000000"})
+    public int edges;
+
+    private MSTTargets targets;
+    private Object graph;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        targets = MSTTargets.load();
+        graph = targets.generate(shape, edges, 42L);
+    }
+
+    @Benchmark
+    public Object primLazy() {
+        return targets.primLazy(graph);
+    }
+
+    @Benchmark
+    public Object primEager() {
+        return targets.primEager(graph);
+    }
+
+    @Benchmark
+    public Object kruskal() {
+        return targets.kruskal(graph);
+    }
+
+    @Benchmark
+    public Object filterKruskal() {
+        return targets.filterKruskal(graph);
+    }
+
+    @Benchmark
+    public Object boruvka() {
+        return targets.boruvka(graph);
+    }
+}
@@ -0,0 +1,31 @@
+package bench;
+
+// JMH refuses benchmark classes in the default package, where the MST code lives,
+// so the benchmarks reach it through this interface implemented by BenchmarkTargets.
+public interface MSTTargets {
+    Object generate(String shape, int edges, long seed);
+
+    Object primLazy(Object graph);
+
+    Object primEager(Object graph);
+
+    Object kruskal(Object graph);
+
+    Object filterKruskal(Object graph);
+
+    Object boruvka(Object graph);
+
+    int[] unionPairs(int vertices, int pairs, long seed);
+
+    int dsuUnionFind(int vertices, int[] pairs);
+
+    int compactDsuUnionFind(int vertices, int[] pairs);
+
+    static MSTTargets load() {
+        try {
+            return (MSTTargets) Class.forName("BenchmarkTargets").getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("BenchmarkTargets is missing from the classpath", e);
+        }
+    }
+}
@@ -0,0 +1,111 @@
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.*;
+
+public class BatchExecutor implements AutoCloseable {
+    private final ExecutorService executor;
+    private final int maxInFlight;
+    private final boolean ownsExecutor;
+
+    public BatchExecutor(ExecutorService executor, int maxInFlight) {
+        this(executor, maxInFlight, false);
+    }
+
+    private BatchExecutor(ExecutorService executor, int maxInFlight, boolean ownsExecutor) {
+        if (maxInFlight < 1) {
+            throw new IllegalArgumentException("maxInFlight must be at least 1: " + maxInFlight);
+        }
+        this.executor = executor;
+        this.maxInFlight = maxInFlight;
+        this.ownsExecutor = ownsExecutor;
+    }
+
+    public static BatchExecutor sequential() {
+        return new BatchExecutor(null, 1, false);
+    }
+
+    public static BatchExecutor fixed(int threads, int maxInFlight) {
+        return new BatchExecutor(Executors.newFixedThreadPool(threads), maxInFlight, true);
+    }
+
+    public static boolean virtualThreadsAvailable() {
+        try {
+            Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return true;
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+
+    public static BatchExecutor virtualThreads(int maxInFlight) {
+        try {
+            ExecutorService executor = (ExecutorService) Executors.class
+                    .getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+            return new BatchExecutor(executor, maxInFlight, true);
+        } catch (ReflectiveOperationException e) {
+            throw new UnsupportedOperationException("Virtual threads require Java 21+ (running " + System.getProperty("java.version") + ")");
+        }
+    }
+
+    public void run(Iterator<Graph> graphs, Map<String, Function<Graph, MSTResult>> algorithms,
+                    Consumer<GraphRun> sink) {
+        Deque<CompletableFuture<GraphRun>> inFlight = new ArrayDeque<>();
+        while (graphs.hasNext()) {
+            while (inFlight.size() >= maxInFlight) {
+                sink.accept(join(inFlight.poll()));
+            }
+            inFlight.add(submit(graphs.next(), algorithms));
+            while (!inFlight.isEmpty() && inFlight.peek().isDone()) {
+                sink.accept(join(inFlight.poll()));
+            }
+        }
+        while (!inFlight.isEmpty()) {
+            sink.accept(join(inFlight.poll()));
+        }
+    }
+
+    private CompletableFuture<GraphRun> submit(Graph graph, Map<String, Function<Graph, MSTResult>> algorithms) {
+        GraphRun run = new GraphRun(graph);
+        List<String> names = new ArrayList<>(algorithms.keySet());
+        List<CompletableFuture<Long>> timings = new ArrayList<>();
+        MSTResult[] results = new MSTResult[names.size()];
+
+        for (int i = 0; i < names.size(); i++) {
+            int index = i;
+            Function<Graph, MSTResult> algorithm = algorithms.get(names.get(i));
+            Supplier<Long> job = () -> {
+                long startTime = System.nanoTime();
+                results[index] = algorithm.apply(graph);
+                return System.nanoTime() - startTime;
+            };
+            timings.add(executor == null
+                    ? CompletableFuture.completedFuture(job.get())
+                    : CompletableFuture.supplyAsync(job, executor));
+        }
+
+        return CompletableFuture.allOf(timings.toArray(new CompletableFuture[0])).thenApply(done -> {
+            for (int i = 0; i < names.size(); i++) {
+                run.put(names.get(i), results[i], timings.get(i).join());
+            }
+            return run;
+        });
+    }
+
+    private static GraphRun join(CompletableFuture<GraphRun> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    @Override
+    public void close() {
+        if (ownsExecutor) {
+            executor.shutdown();
+        }
+    }
+}
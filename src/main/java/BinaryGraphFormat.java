@@ -0,0 +1,308 @@
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.*;
+import java.nio.charset.*;
+import java.nio.file.*;
+import java.util.*;
+
+public class BinaryGraphFormat {
+    static final int MAGIC = 0x4D535447;
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 32;
+    static final int FLAG_CSR = 1;
+
+    private static final int WRITE_BUFFER_SIZE = 1 << 20;
+
+    public static void main(String[] args) throws IOException {
+        if (args.length >= 3 && args[0].equals("convert")) {
+            boolean csr = !Arrays.asList(args).contains("--no-csr");
+            int count = convert(args[1], args[2], csr);
+            System.out.println("✓ Converted " + count + " graphs from " + args[1] + " to " + args[2]);
+        } else {
+            System.out.println("Usage: BinaryGraphFormat convert <input.json> <graphs.mstg> [--no-csr]");
+        }
+    }
+
+    public static int convert(String jsonFile, String binaryFile, boolean csr) throws IOException {
+        try (StreamingGraphReader reader = StreamingGraphReader.open(jsonFile);
+             Writer writer = new Writer(Paths.get(binaryFile), csr)) {
+            while (reader.hasNext()) {
+                writer.write(reader.next());
+            }
+            return writer.graphCount();
+        }
+    }
+
+    public static void write(List<Graph> graphs, String binaryFile, boolean csr) throws IOException {
+        try (Writer writer = new Writer(Paths.get(binaryFile), csr)) {
+            for (Graph graph : graphs) {
+                writer.write(graph);
+            }
+        }
+    }
+
+    public static List<Graph> load(String binaryFile) throws IOException {
+        try (FileChannel channel = FileChannel.open(Paths.get(binaryFile), StandardOpenOption.READ)) {
+            ByteBuffer header = map(channel, 0, HEADER_SIZE);
+            if (header.getInt(0) != MAGIC) {
+                throw new IOException("Not a binary graph file: " + binaryFile);
+            }
+            if (header.getInt(4) != VERSION) {
+                throw new IOException("Unsupported binary graph version " + header.getInt(4) + " in " + binaryFile);
+            }
+            int graphCount = header.getInt(8);
+            long indexOffset = header.getLong(16);
+
+            ByteBuffer index = map(channel, indexOffset, (long) graphCount * Long.BYTES);
+            List<Graph> graphs = new ArrayList<>(graphCount);
+            for (int i = 0; i < graphCount; i++) {
+                graphs.add(loadGraph(channel, index.getLong(i * Long.BYTES)));
+            }
+            return graphs;
+        }
+    }
+
+    private static Graph loadGraph(FileChannel channel, long offset) throws IOException {
+        ByteBuffer section = map(channel, offset, 20);
+        int id = section.getInt(0);
+        int vertexCount = section.getInt(4);
+        int edgeCount = section.getInt(8);
+        int flags = section.getInt(12);
+        int nameBytes = section.getInt(16);
+        long position = offset + 20;
+
+        IntBuffer nameOffsets = mapInts(channel, position, vertexCount + 1);
+        position += 4L * (vertexCount + 1);
+        ByteBuffer names = map(channel, position, nameBytes);
+        position += align(nameBytes);
+        IntBuffer edges = mapInts(channel, position, 3L * edgeCount);
+        position += 12L * edgeCount;
+
+        MappedCompactGraph compact = new MappedCompactGraph(vertexCount, edgeCount, nameOffsets, names, edges);
+        if ((flags & FLAG_CSR) != 0) {
+            IntBuffer offsets = mapInts(channel, position, vertexCount + 1);
+            position += 4L * (vertexCount + 1);
+            IntBuffer targets = mapInts(channel, position, 2L * edgeCount);
+            position += 8L * edgeCount;
+            IntBuffer targetWeights = mapInts(channel, position, 2L * edgeCount);
+            position += 8L * edgeCount;
+            IntBuffer targetEdges = mapInts(channel, position, 2L * edgeCount);
+            compact.setAdjacency(offsets, targets, targetWeights, targetEdges);
+        } else {
+            compact.buildHeapAdjacency();
+        }
+        return new Graph(id, compact);
+    }
+
+    private static ByteBuffer map(FileChannel channel, long offset, long size) throws IOException {
+        if (size > Integer.MAX_VALUE) {
+            throw new IOException("Binary graph region of " + size + " bytes exceeds the 2 GB mapping limit");
+        }
+        return channel.map(FileChannel.MapMode.READ_ONLY, offset, size).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    private static IntBuffer mapInts(FileChannel channel, long offset, long count) throws IOException {
+        return map(channel, offset, count * Integer.BYTES).asIntBuffer();
+    }
+
+    static int align(int bytes) {
+        return (bytes + 3) & ~3;
+    }
+
+    static class Writer implements Closeable {
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(WRITE_BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        private final boolean csr;
+        private final List<Long> sectionOffsets = new ArrayList<>();
+        private long position;
+
+        Writer(Path path, boolean csr) throws IOException {
+            this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING);
+            this.csr = csr;
+            for (int i = 0; i < HEADER_SIZE / Integer.BYTES; i++) {
+                putInt(0);
+            }
+        }
+
+        int graphCount() {
+            return sectionOffsets.size();
+        }
+
+        void write(Graph graph) throws IOException {
+            CompactGraph g = graph.getCompact();
+            if (g.hasCoordinates()) {
+                throw new IOException("Graph " + graph.getId() + " has node coordinates, which the binary format does not support");
+            }
+            int n = g.vertexCount();
+            int m = g.edgeCount();
+            sectionOffsets.add(position);
+
+            byte[][] encoded = new byte[n][];
+            int nameBytes = 0;
+            for (int v = 0; v < n; v++) {
+                encoded[v] = g.name(v).getBytes(StandardCharsets.UTF_8);
+                nameBytes += encoded[v].length;
+            }
+
+            putInt(graph.getId());
+            putInt(n);
+            putInt(m);
+            putInt(csr ? FLAG_CSR : 0);
+            putInt(nameBytes);
+
+            int nameOffset = 0;
+            putInt(0);
+            for (int v = 0; v < n; v++) {
+                nameOffset += encoded[v].length;
+                putInt(nameOffset);
+            }
+            for (int v = 0; v < n; v++) {
+                putBytes(encoded[v]);
+            }
+            for (int pad = nameBytes; pad < align(nameBytes); pad++) {
+                putBytes(new byte[1]);
+            }
+
+            for (int e = 0; e < m; e++) {
+                putInt(g.from(e));
+                putInt(g.to(e));
+                putInt(g.weight(e));
+            }
+
+            if (csr) {
+                for (int v = 0; v <= n; v++) {
+                    putInt(g.offset(v));
+                }
+                for (int k = 0; k < 2 * m; k++) {
+                    putInt(g.target(k));
+                }
+                for (int k = 0; k < 2 * m; k++) {
+                    putInt(g.targetWeight(k));
+                }
+                for (int k = 0; k < 2 * m; k++) {
+                    putInt(g.targetEdge(k));
+                }
+            }
+        }
+
+        private void putInt(int value) throws IOException {
+            if (buffer.remaining() < Integer.BYTES) {
+                flush();
+            }
+            buffer.putInt(value);
+            position += Integer.BYTES;
+        }
+
+        private void putLong(long value) throws IOException {
+            if (buffer.remaining() < Long.BYTES) {
+                flush();
+            }
+            buffer.putLong(value);
+            position += Long.BYTES;
+        }
+
+        private void putBytes(byte[] bytes) throws IOException {
+            int written = 0;
+            while (written < bytes.length) {
+                if (!buffer.hasRemaining()) {
+                    flush();
+                }
+                int chunk = Math.min(buffer.remaining(), bytes.length - written);
+                buffer.put(bytes, written, chunk);
+                written += chunk;
+            }
+            position += bytes.length;
+        }
+
+        private void flush() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                long indexOffset = position;
+                for (long offset : sectionOffsets) {
+                    putLong(offset);
+                }
+                flush();
+
+                ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+                header.putInt(MAGIC).putInt(VERSION).putInt(sectionOffsets.size()).putInt(0).putLong(indexOffset).putLong(0);
+                header.flip();
+                channel.write(header, 0);
+            } finally {
+                channel.close();
+            }
+        }
+    }
+}
+
+class MappedCompactGraph extends CompactGraph {
+    private final IntBuffer nameOffsets;
+    private final ByteBuffer nameBytes;
+    private final IntBuffer edges;
+    private IntBuffer mappedOffsets;
+    private IntBuffer mappedTargets;
+    private IntBuffer mappedTargetWeights;
+    private IntBuffer mappedTargetEdges;
+
+    MappedCompactGraph(int vertexCount, int edgeCount, IntBuffer nameOffsets, ByteBuffer nameBytes, IntBuffer edges) {
+        super(vertexCount, edgeCount);
+        this.nameOffsets = nameOffsets;
+        this.nameBytes = nameBytes;
+        this.edges = edges;
+    }
+
+    void setAdjacency(IntBuffer offsets, IntBuffer targets, IntBuffer targetWeights, IntBuffer targetEdges) {
+        this.mappedOffsets = offsets;
+        this.mappedTargets = targets;
+        this.mappedTargetWeights = targetWeights;
+        this.mappedTargetEdges = targetEdges;
+    }
+
+    void buildHeapAdjacency() {
+        buildAdjacency();
+        setAdjacency(IntBuffer.wrap(offsets), IntBuffer.wrap(targets), IntBuffer.wrap(targetWeights), IntBuffer.wrap(targetEdges));
+        offsets = null;
+        targets = null;
+        targetWeights = null;
+        targetEdges = null;
+    }
+
+    @Override
+    public String name(int v) {
+        int start = nameOffsets.get(v);
+        byte[] bytes = new byte[nameOffsets.get(v + 1) - start];
+        ByteBuffer slice = nameBytes.duplicate();
+        slice.position(start);
+        slice.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public int id(String name) {
+        if (nameToId == null) {
+            Map<String, Integer> ids = new HashMap<>(vertexCount * 2);
+            for (int v = 0; v < vertexCount; v++) {
+                ids.put(name(v), v);
+            }
+            nameToId = ids;
+        }
+        return super.id(name);
+    }
+
+    @Override public int from(int e) { return edges.get(3 * e); }
+    @Override public int to(int e) { return edges.get(3 * e + 1); }
+    @Override public int weight(int e) { return edges.get(3 * e + 2); }
+
+    @Override public int offset(int v) { return mappedOffsets.get(v); }
+    @Override public int target(int k) { return mappedTargets.get(k); }
+    @Override public int targetWeight(int k) { return mappedTargetWeights.get(k); }
+    @Override public int targetEdge(int k) { return mappedTargetEdges.get(k); }
+}
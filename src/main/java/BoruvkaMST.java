@@ -0,0 +1,130 @@
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+
+public class BoruvkaMST {
+    private static final long NO_EDGE = Long.MAX_VALUE;
+
+    public static MSTResult run(Graph graph) {
+        return run(graph, ForkJoinPool.commonPool());
+    }
+
+    public static MSTResult run(Graph graph, ForkJoinPool pool) {
+        long startTime = System.nanoTime();
+        PhaseMetrics metrics = Metrics.start("boruvka");
+        long scanned = 0;
+        CompactGraph g = graph.getCompact();
+        int n = g.vertexCount();
+
+        ConcurrentDSU dsu = new ConcurrentDSU(n);
+        AtomicLongArray cheapest = new AtomicLongArray(n);
+        for (int v = 0; v < n; v++) {
+            cheapest.set(v, NO_EDGE);
+        }
+
+        int[] active = new int[g.edgeCount()];
+        for (int e = 0; e < active.length; e++) {
+            active[e] = e;
+        }
+        int activeCount = active.length;
+        int[] scratch = new int[active.length];
+
+        int[] treeEdges = new int[Math.max(n - 1, 0)];
+        AtomicInteger treeSize = new AtomicInteger();
+        int totalWeight = 0;
+
+        long roundsStart = Metrics.now();
+        while (activeCount > 0 && treeSize.get() < n - 1) {
+            int[] edges = active;
+            int count = activeCount;
+            int chunkSize = ForkJoinChunks.chunkSize(count, pool.getParallelism());
+            int chunks = (count + chunkSize - 1) / chunkSize;
+            int[] liveCounts = new int[chunks];
+
+            ForkJoinChunks.forEachChunk(pool, chunks, c -> {
+                int from = c * chunkSize;
+                int to = Math.min(from + chunkSize, count);
+                int live = 0;
+                for (int i = from; i < to; i++) {
+                    int e = edges[i];
+                    int rootU = dsu.find(g.from(e));
+                    int rootV = dsu.find(g.to(e));
+                    if (rootU == rootV) {
+                        edges[i] = -1;
+                        continue;
+                    }
+                    live++;
+                    long key = LongMinHeap.pack(g.weight(e), e);
+                    lowerTo(cheapest, rootU, key);
+                    lowerTo(cheapest, rootV, key);
+                }
+                liveCounts[c] = live;
+            });
+            scanned += count;
+
+            int[] liveOffsets = new int[chunks + 1];
+            for (int c = 0; c < chunks; c++) {
+                liveOffsets[c + 1] = liveOffsets[c] + liveCounts[c];
+            }
+            int[] target = scratch;
+            ForkJoinChunks.forEachChunk(pool, chunks, c -> {
+                int from = c * chunkSize;
+                int to = Math.min(from + chunkSize, count);
+                int out = liveOffsets[c];
+                for (int i = from; i < to; i++) {
+                    int e = edges[i];
+                    if (e >= 0) {
+                        target[out++] = e;
+                    }
+                }
+            });
+            scratch = active;
+            active = target;
+            activeCount = liveOffsets[chunks];
+
+            int vertexChunkSize = ForkJoinChunks.chunkSize(n, pool.getParallelism());
+            int vertexChunks = (n + vertexChunkSize - 1) / vertexChunkSize;
+            ForkJoinChunks.forEachChunk(pool, vertexChunks, c -> {
+                int from = c * vertexChunkSize;
+                int to = Math.min(from + vertexChunkSize, n);
+                for (int v = from; v < to; v++) {
+                    long key = cheapest.get(v);
+                    if (key == NO_EDGE) {
+                        continue;
+                    }
+                    cheapest.set(v, NO_EDGE);
+                    int e = LongMinHeap.valueOf(key);
+                    if (dsu.union(g.from(e), g.to(e))) {
+                        treeEdges[treeSize.getAndIncrement()] = e;
+                    }
+                }
+            });
+        }
+
+        long assemblyStart = Metrics.now();
+        int size = treeSize.get();
+        Arrays.sort(treeEdges, 0, size);
+        List<Edge> mstEdges = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            mstEdges.add(g.toEdge(treeEdges[i]));
+            totalWeight += g.weight(treeEdges[i]);
+        }
+
+        if (Metrics.ENABLED) {
+            metrics.addPhase(PhaseMetrics.Phase.UNION_FIND, assemblyStart - roundsStart);
+            metrics.phase(PhaseMetrics.Phase.RESULT_ASSEMBLY, assemblyStart);
+            metrics.count(PhaseMetrics.Counter.EDGES_SCANNED, scanned);
+            metrics.count(PhaseMetrics.Counter.FINDS, 2 * scanned);
+            metrics.count(PhaseMetrics.Counter.UNIONS, size);
+        }
+        boolean connected = n == 0 || size == n - 1;
+        return MSTResult.of(mstEdges, totalWeight, metrics, startTime, connected);
+    }
+
+    private static void lowerTo(AtomicLongArray cheapest, int index, long key) {
+        long current = cheapest.get(index);
+        while (key < current && !cheapest.compareAndSet(index, current, key)) {
+            current = cheapest.get(index);
+        }
+    }
+}
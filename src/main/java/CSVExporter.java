@@ -1,21 +1,107 @@
 import java.io.*;
+import java.nio.charset.*;
+import java.nio.file.*;
 import java.util.*;
 
 public class CSVExporter {
     public static void writeSummary(List<Graph> graphs, MSTResult[] prim, MSTResult[] kruskal, String filename, boolean append) throws IOException {
-        boolean writeHeader = !new File(filename).exists() || !append;
-        try (FileWriter fw = new FileWriter(filename, append); BufferedWriter bw = new BufferedWriter(fw)) {
-            if (writeHeader) {
-                bw.write("graph_id,vertices,edges,prim_cost,prim_time_ms,prim_ops,prim_connected,kruskal_cost,kruskal_time_ms,kruskal_ops,kruskal_connected\n");
-            }
+        Map<String, MSTResult[]> results = new LinkedHashMap<>();
+        results.put("prim", prim);
+        results.put("kruskal", kruskal);
+        writeSummary(graphs, results, filename, append);
+    }
+
+    public static void writeSummary(List<Graph> graphs, Map<String, MSTResult[]> results, String filename, boolean append) throws IOException {
+        try (SummaryWriter writer = open(filename, results.keySet(), append)) {
             for (int i = 0; i < graphs.size(); i++) {
                 Graph g = graphs.get(i);
-                MSTResult p = prim[i];
-                MSTResult k = kruskal[i];
-                bw.write(g.getId()+","+g.getVertexCount()+","+g.getEdgeCount()+","+
-                        p.getTotalWeight()+","+p.getExecutionTimeMs()+","+p.getOperations()+","+p.isConnected()+","+
-                        k.getTotalWeight()+","+k.getExecutionTimeMs()+","+k.getOperations()+","+k.isConnected()+"\n");
+                writer.writeIds(g);
+                for (MSTResult[] algorithm : results.values()) {
+                    writer.writeResult(algorithm[i]);
+                }
+                writer.endRow();
+            }
+        }
+    }
+
+    public static SummaryWriter open(String filename, Collection<String> algorithms, boolean append) throws IOException {
+        Path path = Paths.get(filename);
+        String header = header(algorithms);
+        boolean writeHeader = !append || !Files.exists(path) || Files.size(path) == 0;
+        if (!writeHeader) {
+            // the columns depend on which algorithms ran, so rows of another run would not line up
+            String existing;
+            try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+                existing = reader.readLine();
+            }
+            if (!header.equals(existing)) {
+                throw new IllegalArgumentException("Cannot append to " + filename + ": its columns are '" + existing
+                        + "' but this run writes '" + header + "'; move the file away or run the same algorithms");
+            }
+        }
+        OutputStream stream = append
+                ? Files.newOutputStream(path, StandardOpenOption.CREATE, StandardOpenOption.APPEND)
+                : Files.newOutputStream(path);
+        SummaryWriter writer = new SummaryWriter(new BufferedWriter(new OutputStreamWriter(stream, StandardCharsets.UTF_8), 1 << 16));
+        if (writeHeader) {
+            writer.out.write(header);
+            writer.out.write('\n');
+        }
+        return writer;
+    }
+
+    static String header(Collection<String> algorithms) {
+        StringBuilder header = new StringBuilder("graph_id,vertices,edges");
+        for (String name : algorithms) {
+            for (String column : new String[] { "_cost", "_time_ms", "_ops", "_connected" }) {
+                header.append(',').append(name).append(column);
+            }
+        }
+        return header.toString();
+    }
+
+    // rows are written field by field as each graph finishes, with no per-row string building
+    public static class SummaryWriter implements Closeable {
+        private final Writer out;
+
+        SummaryWriter(Writer out) {
+            this.out = out;
+        }
+
+        public void write(GraphRun run) throws IOException {
+            writeIds(run.getGraph());
+            for (MSTResult result : run.getResults().values()) {
+                writeResult(result);
             }
+            endRow();
+        }
+
+        void writeIds(Graph g) throws IOException {
+            out.write(Integer.toString(g.getId()));
+            field(g.getVertexCount());
+            field(g.getEdgeCount());
+        }
+
+        void writeResult(MSTResult r) throws IOException {
+            field(r.getTotalWeight());
+            field(r.getExecutionTimeMs());
+            field(r.getOperations());
+            out.write(',');
+            out.write(r.isConnected() ? "true" : "false");
+        }
+
+        void endRow() throws IOException {
+            out.write('\n');
+        }
+
+        private void field(long value) throws IOException {
+            out.write(',');
+            out.write(Long.toString(value));
+        }
+
+        @Override
+        public void close() throws IOException {
+            out.close();
         }
     }
 }
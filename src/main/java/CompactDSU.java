@@ -0,0 +1,114 @@
+import java.util.*;
+
+// parent[v] >= 0 is v's parent and a root stores -size; iterative path halving, union by size
+public class CompactDSU {
+    private final int[] parent;
+    private long finds;
+    private long pathCompressionSteps;
+    private long unions;
+
+    public CompactDSU(int n) {
+        parent = new int[n];
+        Arrays.fill(parent, -1);
+    }
+
+    public int find(int x) {
+        if (Metrics.ENABLED) {
+            finds++;
+        }
+        int p;
+        while ((p = parent[x]) >= 0) {
+            int grandparent = parent[p];
+            if (grandparent < 0) {
+                return p;
+            }
+            parent[x] = grandparent;
+            x = grandparent;
+            if (Metrics.ENABLED) {
+                pathCompressionSteps++;
+            }
+        }
+        return x;
+    }
+
+    public boolean connected(int x, int y) {
+        return find(x) == find(y);
+    }
+
+    public boolean union(int x, int y) {
+        return link(find(x), find(y));
+    }
+
+    public int size(int x) {
+        return -parent[find(x)];
+    }
+
+    private boolean link(int rootX, int rootY) {
+        if (rootX == rootY) {
+            return false;
+        }
+        if (parent[rootX] > parent[rootY]) {
+            int swap = rootX;
+            rootX = rootY;
+            rootY = swap;
+        }
+        parent[rootX] += parent[rootY];
+        parent[rootY] = rootX;
+        if (Metrics.ENABLED) {
+            unions++;
+        }
+        return true;
+    }
+
+    // pairs are packed as (u0, v0, u1, v1, ...); returns how many of them joined two sets
+    public int unionAll(int[] pairs, int fromPair, int toPair) {
+        int merged = 0;
+        for (int i = 2 * fromPair; i < 2 * toPair; i += 2) {
+            if (link(find(pairs[i]), find(pairs[i + 1]))) {
+                merged++;
+            }
+        }
+        return merged;
+    }
+
+    public int unionAll(int[] pairs) {
+        return unionAll(pairs, 0, pairs.length / 2);
+    }
+
+    // Kruskal's inner loop: keys are LongMinHeap-packed (weight, edge) in ascending order; accepted
+    // edges are appended to accepted until it is full. Endpoints go through the accessors, since
+    // memory-mapped graphs have no edge arrays.
+    public int unionAll(long[] sortedKeys, CompactGraph g, int[] accepted) {
+        int count = 0;
+        int limit = accepted.length;
+        for (int i = 0; i < sortedKeys.length && count < limit; i++) {
+            int e = LongMinHeap.valueOf(sortedKeys[i]);
+            if (link(find(g.from(e)), find(g.to(e)))) {
+                accepted[count++] = e;
+            }
+        }
+        return count;
+    }
+
+    public void findAll(int[] vertices, int[] roots) {
+        for (int i = 0; i < vertices.length; i++) {
+            roots[i] = find(vertices[i]);
+        }
+    }
+
+    public int[] findAll() {
+        int[] roots = new int[parent.length];
+        for (int v = 0; v < roots.length; v++) {
+            roots[v] = find(v);
+        }
+        return roots;
+    }
+
+    public long getFinds() { return finds; }
+    public long getPathCompressionSteps() { return pathCompressionSteps; }
+    public long getUnions() { return unions; }
+
+    public long getOperationsCount() {
+        return finds + pathCompressionSteps + unions;
+    }
+}
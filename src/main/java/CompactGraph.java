@@ -0,0 +1,284 @@
+import java.util.*;
+
+class CompactGraph {
+    String[] names;
+    Map<String, Integer> nameToId;
+    int vertexCount;
+    int edgeCount;
+
+    int[] edgeFrom;
+    int[] edgeTo;
+    int[] edgeWeight;
+
+    int[] offsets;
+    int[] targets;
+    int[] targetWeights;
+    int[] targetEdges;
+    long adjacencyNanos;
+    double[] coordinates;
+
+    CompactGraph(String[] names, Map<String, Integer> nameToId, int[] edgeFrom, int[] edgeTo, int[] edgeWeight, int edgeCount) {
+        this.names = names;
+        this.nameToId = nameToId;
+        this.vertexCount = names.length;
+        this.edgeCount = edgeCount;
+        this.edgeFrom = edgeFrom;
+        this.edgeTo = edgeTo;
+        this.edgeWeight = edgeWeight;
+        buildAdjacency();
+    }
+
+    CompactGraph(int vertexCount, int edgeCount) {
+        this.vertexCount = vertexCount;
+        this.edgeCount = edgeCount;
+    }
+
+    public static CompactGraph of(List<String> vertices, List<Edge> edges) {
+        String[] names = vertices.toArray(new String[0]);
+        Map<String, Integer> nameToId = new HashMap<>(names.length * 2);
+        for (int i = 0; i < names.length; i++) {
+            nameToId.put(names[i], i);
+        }
+
+        int m = edges.size();
+        int[] from = new int[m];
+        int[] to = new int[m];
+        int[] weight = new int[m];
+        for (int e = 0; e < m; e++) {
+            Edge edge = edges.get(e);
+            from[e] = idOf(nameToId, edge.from);
+            to[e] = idOf(nameToId, edge.to);
+            weight[e] = edge.weight;
+        }
+        return new CompactGraph(names, nameToId, from, to, weight, m);
+    }
+
+    private static int idOf(Map<String, Integer> nameToId, String name) {
+        Integer id = nameToId.get(name);
+        if (id == null) {
+            throw new IllegalArgumentException("Edge references unknown vertex: " + name);
+        }
+        return id;
+    }
+
+    void buildAdjacency() {
+        long startTime = Metrics.now();
+        offsets = new int[vertexCount + 1];
+        for (int e = 0; e < edgeCount; e++) {
+            offsets[from(e) + 1]++;
+            offsets[to(e) + 1]++;
+        }
+        for (int v = 0; v < vertexCount; v++) {
+            offsets[v + 1] += offsets[v];
+        }
+
+        targets = new int[2 * edgeCount];
+        targetWeights = new int[2 * edgeCount];
+        targetEdges = new int[2 * edgeCount];
+        int[] next = Arrays.copyOf(offsets, vertexCount);
+        for (int e = 0; e < edgeCount; e++) {
+            int u = from(e);
+            int v = to(e);
+            int w = weight(e);
+            int k = next[u]++;
+            targets[k] = v;
+            targetWeights[k] = w;
+            targetEdges[k] = e;
+            k = next[v]++;
+            targets[k] = u;
+            targetWeights[k] = w;
+            targetEdges[k] = e;
+        }
+        if (Metrics.ENABLED) {
+            adjacencyNanos = System.nanoTime() - startTime;
+        }
+    }
+
+    // same vertices over another edge set; names are read through this graph's accessors, so it
+    // also works for memory-mapped graphs that have no name array
+    CompactGraph withEdges(int[] from, int[] to, int[] weight, int m) {
+        CompactGraph vertices = this;
+        CompactGraph g = new CompactGraph(vertexCount, m) {
+            @Override
+            public String name(int v) {
+                return vertices.name(v);
+            }
+
+            @Override
+            public int id(String name) {
+                return vertices.id(name);
+            }
+        };
+        g.edgeFrom = from;
+        g.edgeTo = to;
+        g.edgeWeight = weight;
+        g.coordinates = coordinates;
+        g.buildAdjacency();
+        return g;
+    }
+
+    public long adjacencyNanos() { return adjacencyNanos; }
+    public int vertexCount() { return vertexCount; }
+    public int edgeCount() { return edgeCount; }
+
+    public String name(int v) { return names[v]; }
+    public int id(String name) { return idOf(nameToId, name); }
+
+    public int from(int e) { return edgeFrom[e]; }
+    public int to(int e) { return edgeTo[e]; }
+    public int weight(int e) { return edgeWeight[e]; }
+
+    public int offset(int v) { return offsets[v]; }
+    public int target(int k) { return targets[k]; }
+    public int targetWeight(int k) { return targetWeights[k]; }
+    public int targetEdge(int k) { return targetEdges[k]; }
+
+    public boolean hasCoordinates() { return coordinates != null; }
+    public double x(int v) { return coordinates[2 * v]; }
+    public double y(int v) { return coordinates[2 * v + 1]; }
+
+    public Edge toEdge(int e) {
+        return new Edge(name(from(e)), name(to(e)), weight(e));
+    }
+
+    public List<String> vertexList() {
+        return new AbstractList<String>() {
+            @Override
+            public String get(int v) {
+                Objects.checkIndex(v, vertexCount);
+                return name(v);
+            }
+
+            @Override
+            public int size() {
+                return vertexCount;
+            }
+        };
+    }
+
+    public List<Edge> edgeList() {
+        return new AbstractList<Edge>() {
+            @Override
+            public Edge get(int e) {
+                Objects.checkIndex(e, edgeCount);
+                return toEdge(e);
+            }
+
+            @Override
+            public int size() {
+                return edgeCount;
+            }
+        };
+    }
+
+    static class Builder {
+        private final Map<String, Integer> nameToId = new HashMap<>();
+        private String[] names = new String[16];
+        private int[] declaredOrder = new int[16];
+        private boolean[] declared = new boolean[16];
+        private int vertexCount;
+        private int declaredCount;
+        private int[] from = new int[16];
+        private int[] to = new int[16];
+        private int[] weight = new int[16];
+        private int edgeCount;
+        private double[] coordinates;
+        private int coordinateCount;
+
+        public void addVertex(String name) {
+            int v = intern(name);
+            if (!declared[v]) {
+                declared[v] = true;
+                declaredOrder[declaredCount++] = v;
+            }
+        }
+
+        public void addVertex(String name, double x, double y) {
+            int declaredBefore = declaredCount;
+            addVertex(name);
+            if (declaredCount == declaredBefore) {
+                return;
+            }
+            int v = nameToId.get(name);
+            if (coordinates == null) {
+                coordinates = new double[2 * names.length];
+            } else if (coordinates.length < 2 * names.length) {
+                coordinates = Arrays.copyOf(coordinates, 2 * names.length);
+            }
+            coordinates[2 * v] = x;
+            coordinates[2 * v + 1] = y;
+            coordinateCount++;
+        }
+
+        public void addEdge(String fromName, String toName, int w) {
+            if (edgeCount == from.length) {
+                int capacity = edgeCount + (edgeCount >> 1);
+                from = Arrays.copyOf(from, capacity);
+                to = Arrays.copyOf(to, capacity);
+                weight = Arrays.copyOf(weight, capacity);
+            }
+            from[edgeCount] = intern(fromName);
+            to[edgeCount] = intern(toName);
+            weight[edgeCount] = w;
+            edgeCount++;
+        }
+
+        private int intern(String name) {
+            Integer id = nameToId.get(name);
+            if (id != null) {
+                return id;
+            }
+            if (vertexCount == names.length) {
+                int capacity = vertexCount + (vertexCount >> 1);
+                names = Arrays.copyOf(names, capacity);
+                declared = Arrays.copyOf(declared, capacity);
+                declaredOrder = Arrays.copyOf(declaredOrder, capacity);
+            }
+            names[vertexCount] = name;
+            nameToId.put(name, vertexCount);
+            return vertexCount++;
+        }
+
+        public CompactGraph build() {
+            if (declaredCount < vertexCount) {
+                for (int v = 0; v < vertexCount; v++) {
+                    if (!declared[v]) {
+                        throw new IllegalArgumentException("Edge references unknown vertex: " + names[v]);
+                    }
+                }
+            }
+
+            if (coordinateCount != 0 && coordinateCount != vertexCount) {
+                throw new IllegalArgumentException("Coordinates must be given for every node or for none");
+            }
+
+            String[] ordered = new String[vertexCount];
+            int[] remap = new int[vertexCount];
+            boolean identity = true;
+            for (int i = 0; i < vertexCount; i++) {
+                int v = declaredOrder[i];
+                ordered[i] = names[v];
+                remap[v] = i;
+                identity &= v == i;
+            }
+            if (!identity) {
+                for (int e = 0; e < edgeCount; e++) {
+                    from[e] = remap[from[e]];
+                    to[e] = remap[to[e]];
+                }
+                for (int i = 0; i < vertexCount; i++) {
+                    nameToId.put(ordered[i], i);
+                }
+            }
+            CompactGraph graph = new CompactGraph(ordered, nameToId, from, to, weight, edgeCount);
+            if (coordinateCount > 0) {
+                graph.coordinates = new double[2 * vertexCount];
+                for (int v = 0; v < vertexCount; v++) {
+                    graph.coordinates[2 * remap[v]] = coordinates[2 * v];
+                    graph.coordinates[2 * remap[v] + 1] = coordinates[2 * v + 1];
+                }
+            }
+            return graph;
+        }
+    }
+}
@@ -0,0 +1,57 @@
+import java.util.concurrent.atomic.*;
+
+public class ConcurrentDSU {
+    private final AtomicIntegerArray parent;
+
+    public ConcurrentDSU(int n) {
+        parent = new AtomicIntegerArray(n);
+        for (int i = 0; i < n; i++) {
+            parent.set(i, i);
+        }
+    }
+
+    public int find(int x) {
+        while (true) {
+            int p = parent.get(x);
+            if (p == x) {
+                return x;
+            }
+            int grandParent = parent.get(p);
+            if (p != grandParent) {
+                parent.compareAndSet(x, p, grandParent);
+            }
+            x = grandParent;
+        }
+    }
+
+    public boolean sameSet(int x, int y) {
+        while (true) {
+            int rootX = find(x);
+            int rootY = find(y);
+            if (rootX == rootY) {
+                return true;
+            }
+            if (parent.get(rootX) == rootX) {
+                return false;
+            }
+        }
+    }
+
+    public boolean union(int x, int y) {
+        while (true) {
+            int rootX = find(x);
+            int rootY = find(y);
+            if (rootX == rootY) {
+                return false;
+            }
+            if (rootX < rootY) {
+                int tmp = rootX;
+                rootX = rootY;
+                rootY = tmp;
+            }
+            if (parent.compareAndSet(rootX, rootX, rootY)) {
+                return true;
+            }
+        }
+    }
+}
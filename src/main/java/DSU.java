@@ -1,32 +1,45 @@
 public class DSU {
     private int[] parent;
     private int[] rank;
-    private int operationsCount;
+    private long finds;
+    private long pathCompressionSteps;
+    private long unions;
 
     public DSU(int n) {
         parent = new int[n];
         rank = new int[n];
-        operationsCount = 0;
 
         for (int i = 0; i < n; i++) {
             parent[i] = i;
-            operationsCount++;
         }
     }
 
     public int find(int x) {
-        operationsCount++;
+        if (Metrics.ENABLED) {
+            finds++;
+        }
         if (parent[x] != x) {
             parent[x] = find(parent[x]);
-            operationsCount++;
+            if (Metrics.ENABLED) {
+                pathCompressionSteps++;
+            }
         }
         return parent[x];
     }
 
+    public boolean connected(int x, int y) {
+        while (parent[x] != x) {
+            x = parent[x];
+        }
+        while (parent[y] != y) {
+            y = parent[y];
+        }
+        return x == y;
+    }
+
     public boolean union(int x, int y) {
         int rootX = find(x);
         int rootY = find(y);
-        operationsCount += 2;
 
         if (rootX == rootY) {
             return false;
@@ -39,17 +52,24 @@ public class DSU {
         } else {
             parent[rootY] = rootX;
             rank[rootX]++;
-            operationsCount++;
         }
-        operationsCount += 3;
+        if (Metrics.ENABLED) {
+            unions++;
+        }
         return true;
     }
 
-    public int getOperationsCount() {
-        return operationsCount;
+    public long getFinds() { return finds; }
+    public long getPathCompressionSteps() { return pathCompressionSteps; }
+    public long getUnions() { return unions; }
+
+    public long getOperationsCount() {
+        return finds + pathCompressionSteps + unions;
     }
 
     public void resetOperationsCount() {
-        operationsCount = 0;
+        finds = 0;
+        pathCompressionSteps = 0;
+        unions = 0;
     }
 }
@@ -0,0 +1,337 @@
+import java.util.*;
+
+public class DynamicMST {
+    private final CompactGraph g;
+    private final int n;
+    private final LinkCutTree forest;
+
+    // Holm-de Lichtenberg-Thorup levels: tree edges of level >= i form the forest of tours.get(i),
+    // whose trees hold at most n / 2^i vertices, and a non-tree edge of level i joins two vertices
+    // already connected at level i. Searches move the edges they pass over up a level, so later
+    // searches skip them; only the fallback in reconnect() moves edges down.
+    private final List<EulerTourForest> tours = new ArrayList<>();
+
+    private int[] from;
+    private int[] to;
+    private int[] weight;
+    private byte[] state;
+    private byte[] level;
+    private int edgeCount;
+    private int treeSize;
+    private long totalWeight;
+    private long replacementScans;
+    private int[] pending = new int[16];
+    private int pendingCount;
+
+    private static final byte DELETED = 0;
+    private static final byte TREE = 1;
+    private static final byte NON_TREE = 2;
+
+    public DynamicMST(Graph graph, MSTResult mst) {
+        this.g = graph.getCompact();
+        this.n = g.vertexCount();
+        int m = g.edgeCount();
+        int capacity = Math.max(m, 16);
+        this.from = new int[capacity];
+        this.to = new int[capacity];
+        this.weight = new int[capacity];
+        this.state = new byte[capacity];
+        this.level = new byte[capacity];
+        this.forest = new LinkCutTree(n + capacity);
+
+        for (int e = 0; e < m; e++) {
+            from[e] = g.from(e);
+            to[e] = g.to(e);
+            weight[e] = g.weight(e);
+            state[e] = NON_TREE;
+        }
+        edgeCount = m;
+
+        for (Edge edge : mst.getMstEdges()) {
+            int e = findNonTreeEdge(g.id(edge.getFrom()), g.id(edge.getTo()), edge.getWeight());
+            if (e < 0 || forest.connected(from[e], to[e])) {
+                throw new IllegalArgumentException("MST edge " + edge.getFrom() + " - " + edge.getTo()
+                        + " (" + edge.getWeight() + ") does not belong to a spanning forest of graph " + graph.getId());
+            }
+            addTreeEdge(e, 0);
+        }
+        for (int e = 0; e < m; e++) {
+            if (state[e] == NON_TREE) {
+                addNonTreeEdge(e, 0);
+            }
+        }
+    }
+
+    private int findNonTreeEdge(int u, int v, int w) {
+        int x = g.offset(u + 1) - g.offset(u) <= g.offset(v + 1) - g.offset(v) ? u : v;
+        int y = x == u ? v : u;
+        for (int k = g.offset(x); k < g.offset(x + 1); k++) {
+            int e = g.targetEdge(k);
+            if (state[e] == NON_TREE && weight[e] == w && g.target(k) == y) {
+                return e;
+            }
+        }
+        return -1;
+    }
+
+    public int insertEdge(String fromName, String toName, int w) {
+        int u = g.id(fromName);
+        int v = g.id(toName);
+        if (edgeCount == from.length) {
+            int capacity = edgeCount + (edgeCount >> 1);
+            from = Arrays.copyOf(from, capacity);
+            to = Arrays.copyOf(to, capacity);
+            weight = Arrays.copyOf(weight, capacity);
+            state = Arrays.copyOf(state, capacity);
+            level = Arrays.copyOf(level, capacity);
+            forest.ensureCapacity(n + capacity);
+        }
+        int e = edgeCount++;
+        from[e] = u;
+        to[e] = v;
+        weight[e] = w;
+        state[e] = NON_TREE;
+        offer(e);
+        return e;
+    }
+
+    public void decreaseWeight(int e, int w) {
+        checkLive(e);
+        if (w > weight[e]) {
+            throw new IllegalArgumentException("New weight " + w + " is greater than current weight " + weight[e] + " of edge " + e);
+        }
+        if (state[e] == TREE) {
+            totalWeight += (long) w - weight[e];
+            weight[e] = w;
+            forest.setValue(n + e, w);
+        } else {
+            removeNonTreeEdge(e);
+            weight[e] = w;
+            offer(e);
+        }
+    }
+
+    public void increaseWeight(int e, int w) {
+        checkLive(e);
+        if (w < weight[e]) {
+            throw new IllegalArgumentException("New weight " + w + " is less than current weight " + weight[e] + " of edge " + e);
+        }
+        if (state[e] == NON_TREE) {
+            removeNonTreeEdge(e);
+            weight[e] = w;
+            addNonTreeEdge(e, level[e]);
+            return;
+        }
+        // drop the edge, let the cheapest replacement in, then offer it back at its new weight
+        removeTreeEdge(e);
+        state[e] = NON_TREE;
+        reconnect(e);
+        weight[e] = w;
+        offer(e);
+    }
+
+    public void deleteEdge(int e) {
+        checkLive(e);
+        if (state[e] == NON_TREE) {
+            removeNonTreeEdge(e);
+            state[e] = DELETED;
+            return;
+        }
+        removeTreeEdge(e);
+        state[e] = DELETED;
+        reconnect(e);
+    }
+
+    // e is in neither the forest nor the level sets
+    private void offer(int e) {
+        int u = from[e];
+        int v = to[e];
+        if (!forest.connected(u, v)) {
+            addTreeEdge(e, 0);
+            return;
+        }
+        addNonTreeEdge(e, 0);
+        if (u == v) {
+            return;
+        }
+        int heaviest = forest.pathMax(u, v) - n;
+        if (heaviest >= 0 && weight[heaviest] > weight[e]) {
+            // e is now the only edge across the cut lighter than heaviest, so the search brings it in
+            removeTreeEdge(heaviest);
+            reconnect(heaviest);
+            addNonTreeEdge(heaviest, 0);
+        }
+    }
+
+    // tree edge e has just been cut; link the cheapest non-tree edge across the cut, if any. Only
+    // levels up to level[e] can hold one: a higher non-tree edge is connected without e. At each level
+    // the smaller side is searched, its tree edges and the non-tree edges it contains move up a
+    // level, and the first crossing edge in weight order is that level's candidate.
+    private void reconnect(int e) {
+        int u = from[e];
+        int v = to[e];
+        int top = level[e];
+        int[] side = new int[top + 1];
+        long[] candidate = new long[top + 1];
+        long best = Long.MAX_VALUE;
+        int bestLevel = -1;
+        pendingCount = 0;
+        for (int i = top; i >= 0; i--) {
+            EulerTourForest tour = tours.get(i);
+            side[i] = tour.size(u) <= tour.size(v) ? u : v;
+            for (int f = tour.flaggedEdge(side[i]); f >= 0; f = tour.flaggedEdge(side[i])) {
+                tour.setFlag(f, false);
+                promote(f, i + 1);
+            }
+            candidate[i] = Long.MAX_VALUE;
+            for (long key = tour.minKey(side[i]); key != Long.MAX_VALUE; key = tour.minKey(side[i])) {
+                int f = LongMinHeap.valueOf(key);
+                replacementScans++;
+                if (!tour.connected(from[f], to[f])) {
+                    candidate[i] = key;
+                    break;
+                }
+                removeNonTreeEdge(f);
+                promote(f, i + 1);
+            }
+            if (candidate[i] < best) {
+                best = candidate[i];
+                bestLevel = i;
+            }
+        }
+        if (best == Long.MAX_VALUE) {
+            applyPromotions();
+            return;
+        }
+
+        // crossing edges above the winner would lose their connection at their own level once it is
+        // linked lower down, so they drop to its level; without inserts and decreases the cheapest
+        // crossing edge is always on the highest level that has one and nothing moves down here
+        for (int i = top; i > bestLevel; i--) {
+            EulerTourForest tour = tours.get(i);
+            for (long key = candidate[i]; key != Long.MAX_VALUE; key = tour.minKey(side[i])) {
+                int f = LongMinHeap.valueOf(key);
+                replacementScans++;
+                removeNonTreeEdge(f);
+                if (tour.connected(from[f], to[f])) {
+                    promote(f, i + 1);
+                } else {
+                    addNonTreeEdge(f, bestLevel);
+                }
+            }
+        }
+        applyPromotions();
+        int f = LongMinHeap.valueOf(best);
+        removeNonTreeEdge(f);
+        addTreeEdge(f, level[f]);
+    }
+
+    // promoted edges join their new level only after the search, so the levels still to be searched
+    // see the same trees as before it started
+    private void promote(int f, int l) {
+        level[f] = (byte) l;
+        if (pendingCount == pending.length) {
+            pending = Arrays.copyOf(pending, pendingCount * 2);
+        }
+        pending[pendingCount++] = f;
+    }
+
+    private void applyPromotions() {
+        for (int k = 0; k < pendingCount; k++) {
+            int f = pending[k];
+            if (state[f] == TREE) {
+                EulerTourForest tour = tour(level[f]);
+                tour.link(f, from[f], to[f]);
+                tour.setFlag(f, true);
+            } else {
+                addNonTreeEdge(f, level[f]);
+            }
+        }
+        pendingCount = 0;
+    }
+
+    private EulerTourForest tour(int i) {
+        while (tours.size() <= i) {
+            tours.add(new EulerTourForest(n));
+        }
+        return tours.get(i);
+    }
+
+    private void addTreeEdge(int e, int l) {
+        forest.setValue(n + e, weight[e]);
+        forest.link(n + e, from[e]);
+        forest.link(n + e, to[e]);
+        for (int i = 0; i <= l; i++) {
+            tour(i).link(e, from[e], to[e]);
+        }
+        tour(l).setFlag(e, true);
+        level[e] = (byte) l;
+        state[e] = TREE;
+        treeSize++;
+        totalWeight += weight[e];
+    }
+
+    private void removeTreeEdge(int e) {
+        forest.cut(n + e, from[e]);
+        forest.cut(n + e, to[e]);
+        for (int i = 0; i <= level[e]; i++) {
+            tours.get(i).cut(e);
+        }
+        treeSize--;
+        totalWeight -= weight[e];
+    }
+
+    // self-loops never cross a cut, so they stay out of the level sets
+    private void addNonTreeEdge(int e, int l) {
+        level[e] = (byte) l;
+        state[e] = NON_TREE;
+        if (from[e] != to[e]) {
+            long key = LongMinHeap.pack(weight[e], e);
+            EulerTourForest tour = tour(l);
+            tour.addKey(from[e], key);
+            tour.addKey(to[e], key);
+        }
+    }
+
+    private void removeNonTreeEdge(int e) {
+        if (from[e] != to[e]) {
+            long key = LongMinHeap.pack(weight[e], e);
+            EulerTourForest tour = tours.get(level[e]);
+            tour.removeKey(from[e], key);
+            tour.removeKey(to[e], key);
+        }
+    }
+
+    private void checkLive(int e) {
+        if (e < 0 || e >= edgeCount || state[e] == DELETED) {
+            throw new IllegalArgumentException("Unknown or deleted edge: " + e);
+        }
+    }
+
+    public boolean isTreeEdge(int e) { return e >= 0 && e < edgeCount && state[e] == TREE; }
+    public int getWeight(int e) { return weight[e]; }
+    public long getTotalWeight() { return totalWeight; }
+    public int getTreeSize() { return treeSize; }
+    public boolean isConnected() { return n == 0 || treeSize == n - 1; }
+    public long getReplacementScans() { return replacementScans; }
+
+    public MSTResult toResult() {
+        List<Edge> mstEdges = new ArrayList<>(treeSize);
+        for (int e = 0; e < edgeCount; e++) {
+            if (state[e] == TREE) {
+                mstEdges.add(new Edge(g.name(from[e]), g.name(to[e]), weight[e]));
+            }
+        }
+        return new MSTResult(mstEdges, (int) totalWeight, 0, 0, isConnected());
+    }
+
+    public Graph snapshot(int id) {
+        List<Edge> edges = new ArrayList<>();
+        for (int e = 0; e < edgeCount; e++) {
+            if (state[e] != DELETED) {
+                edges.add(new Edge(g.name(from[e]), g.name(to[e]), weight[e]));
+            }
+        }
+        return new Graph(id, CompactGraph.of(g.vertexList(), edges));
+    }
+}
@@ -0,0 +1,80 @@
+import java.util.*;
+
+class EdgeSorter {
+    static final int PARALLEL_SORT_THRESHOLD = 1 << 22;
+    private static final int RADIX_BITS = 8;
+    private static final int BUCKETS = 1 << RADIX_BITS;
+    private static final int PASSES = Long.SIZE / RADIX_BITS;
+    private static final int INSERTION_SORT_THRESHOLD = 64;
+
+    public static long[] sortedKeys(CompactGraph g) {
+        int m = g.edgeCount();
+        long[] keys = new long[m];
+        for (int e = 0; e < m; e++) {
+            keys[e] = LongMinHeap.pack(g.weight(e), e);
+        }
+        if (m >= PARALLEL_SORT_THRESHOLD) {
+            Arrays.parallelSort(keys);
+        } else {
+            radixSort(keys, 0, m, new long[m]);
+        }
+        return keys;
+    }
+
+    public static void radixSort(long[] keys, int from, int to, long[] buffer) {
+        int count = to - from;
+        if (count <= INSERTION_SORT_THRESHOLD) {
+            insertionSort(keys, from, to);
+            return;
+        }
+
+        int[][] histograms = new int[PASSES][BUCKETS];
+        for (int i = from; i < to; i++) {
+            long key = keys[i] ^ Long.MIN_VALUE;
+            for (int pass = 0; pass < PASSES; pass++) {
+                histograms[pass][(int) (key >>> (pass * RADIX_BITS)) & (BUCKETS - 1)]++;
+            }
+        }
+
+        long[] src = keys;
+        long[] dst = buffer;
+        for (int pass = 0; pass < PASSES; pass++) {
+            int[] histogram = histograms[pass];
+            int shift = pass * RADIX_BITS;
+            if (histogram[(int) ((src[from] ^ Long.MIN_VALUE) >>> shift) & (BUCKETS - 1)] == count) {
+                continue;
+            }
+
+            int offset = from;
+            for (int b = 0; b < BUCKETS; b++) {
+                int size = histogram[b];
+                histogram[b] = offset;
+                offset += size;
+            }
+            for (int i = from; i < to; i++) {
+                long key = src[i];
+                dst[histogram[(int) ((key ^ Long.MIN_VALUE) >>> shift) & (BUCKETS - 1)]++] = key;
+            }
+
+            long[] tmp = src;
+            src = dst;
+            dst = tmp;
+        }
+
+        if (src != keys) {
+            System.arraycopy(src, from, keys, from, count);
+        }
+    }
+
+    private static void insertionSort(long[] keys, int from, int to) {
+        for (int i = from + 1; i < to; i++) {
+            long key = keys[i];
+            int j = i - 1;
+            while (j >= from && keys[j] > key) {
+                keys[j + 1] = keys[j];
+                j--;
+            }
+            keys[j + 1] = key;
+        }
+    }
+}
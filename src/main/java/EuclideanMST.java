@@ -0,0 +1,375 @@
+import java.util.*;
+
+public class EuclideanMST {
+    private static final int OCTANTS = 8;
+    private static final int LEAF_SIZE = 8;
+    private static final int NONE = -1;
+
+    public static MSTResult run(Graph graph) {
+        long startTime = System.nanoTime();
+        PhaseMetrics metrics = Metrics.start("euclidean");
+        CompactGraph g = graph.getCompact();
+        if (!g.hasCoordinates()) {
+            throw new IllegalArgumentException("Graph " + graph.getId() + " has no node coordinates");
+        }
+
+        long candidateStart = Metrics.now();
+        PointTree tree = new PointTree(g);
+        CompactGraph candidates = tree.candidateGraph();
+
+        long mstStart = Metrics.now();
+        MSTResult mst = MSTAlgorithm.kruskalMST(new Graph(graph.getId(), candidates));
+
+        if (Metrics.ENABLED) {
+            metrics.addPhase(PhaseMetrics.Phase.ADJACENCY_BUILD, mstStart - candidateStart);
+            metrics.count(PhaseMetrics.Counter.EDGES_SCANNED, tree.scanned);
+            metrics.merge(mst.getMetrics());
+        }
+        return MSTResult.of(mst.getMstEdges(), mst.getTotalWeight(), metrics, startTime, mst.isConnected());
+    }
+
+    // Candidate edges form a Yao graph: every distinct point keeps its nearest neighbour in each of
+    // eight 45-degree octants. For any pair p, q outside that graph there is a kept edge p-r with
+    // |pr| <= |pq| and |rq| < |pq|, so the graph contains a minimum spanning tree of the complete
+    // distance graph; rounding to int weights is monotone, so that still holds for the rounded weights.
+    static class PointTree {
+        private final CompactGraph g;
+        private final int[] representative;
+        private final int points;
+        private final double[] x;
+        private final double[] y;
+        private final int[] vertex;
+
+        private int nodeCount;
+        private final int[] nodeLo;
+        private final int[] nodeHi;
+        private final int[] nodeLeft;
+        private final int[] nodeRight;
+        private final double[] minX;
+        private final double[] maxX;
+        private final double[] minY;
+        private final double[] maxY;
+
+        long scanned;
+
+        PointTree(CompactGraph g) {
+            this.g = g;
+            int n = g.vertexCount();
+            representative = representatives(g);
+            int distinct = 0;
+            for (int v = 0; v < n; v++) {
+                if (representative[v] == v) {
+                    distinct++;
+                }
+            }
+            points = distinct;
+            x = new double[points];
+            y = new double[points];
+            vertex = new int[points];
+            int i = 0;
+            for (int v = 0; v < n; v++) {
+                if (representative[v] == v) {
+                    x[i] = g.x(v);
+                    y[i] = g.y(v);
+                    vertex[i++] = v;
+                }
+            }
+
+            int maxNodes = 4 * (points / LEAF_SIZE) + 4;
+            nodeLo = new int[maxNodes];
+            nodeHi = new int[maxNodes];
+            nodeLeft = new int[maxNodes];
+            nodeRight = new int[maxNodes];
+            minX = new double[maxNodes];
+            maxX = new double[maxNodes];
+            minY = new double[maxNodes];
+            maxY = new double[maxNodes];
+            if (points > 0) {
+                build(0, points);
+            }
+        }
+
+        // coincident points collapse onto their first occurrence and are attached to it with weight 0
+        private static int[] representatives(CompactGraph g) {
+            int n = g.vertexCount();
+            int capacity = Integer.highestOneBit(Math.max(2 * n, 2) - 1) << 1;
+            int mask = capacity - 1;
+            int[] table = new int[capacity];
+            Arrays.fill(table, NONE);
+            int[] representative = new int[n];
+            for (int v = 0; v < n; v++) {
+                double px = g.x(v) + 0.0;
+                double py = g.y(v) + 0.0;
+                long hash = Double.doubleToLongBits(px) * 0x9E3779B97F4A7C15L + Double.doubleToLongBits(py);
+                int slot = (int) (hash ^ (hash >>> 29) ^ (hash >>> 47)) & mask;
+                while (table[slot] != NONE && (g.x(table[slot]) != px || g.y(table[slot]) != py)) {
+                    slot = (slot + 1) & mask;
+                }
+                if (table[slot] == NONE) {
+                    table[slot] = v;
+                }
+                representative[v] = table[slot];
+            }
+            return representative;
+        }
+
+        private int build(int lo, int hi) {
+            int node = nodeCount++;
+            double x0 = Double.POSITIVE_INFINITY;
+            double x1 = Double.NEGATIVE_INFINITY;
+            double y0 = Double.POSITIVE_INFINITY;
+            double y1 = Double.NEGATIVE_INFINITY;
+            for (int i = lo; i < hi; i++) {
+                x0 = Math.min(x0, x[i]);
+                x1 = Math.max(x1, x[i]);
+                y0 = Math.min(y0, y[i]);
+                y1 = Math.max(y1, y[i]);
+            }
+            nodeLo[node] = lo;
+            nodeHi[node] = hi;
+            minX[node] = x0;
+            maxX[node] = x1;
+            minY[node] = y0;
+            maxY[node] = y1;
+            if (hi - lo <= LEAF_SIZE) {
+                nodeLeft[node] = NONE;
+                return node;
+            }
+            int mid = (lo + hi) >>> 1;
+            select(lo, hi, mid, x1 - x0 >= y1 - y0 ? x : y);
+            nodeLeft[node] = build(lo, mid);
+            nodeRight[node] = build(mid, hi);
+            return node;
+        }
+
+        private void select(int lo, int hi, int k, double[] key) {
+            while (hi - lo > 1) {
+                double a = key[lo];
+                double b = key[(lo + hi) >>> 1];
+                double c = key[hi - 1];
+                double pivot = Math.max(Math.min(a, b), Math.min(Math.max(a, b), c));
+                int i = lo;
+                int j = hi - 1;
+                while (i <= j) {
+                    while (key[i] < pivot) {
+                        i++;
+                    }
+                    while (key[j] > pivot) {
+                        j--;
+                    }
+                    if (i <= j) {
+                        swap(i++, j--);
+                    }
+                }
+                if (k <= j) {
+                    hi = j + 1;
+                } else if (k >= i) {
+                    lo = i;
+                } else {
+                    return;
+                }
+            }
+        }
+
+        private void swap(int i, int j) {
+            double tx = x[i];
+            x[i] = x[j];
+            x[j] = tx;
+            double ty = y[i];
+            y[i] = y[j];
+            y[j] = ty;
+            int tv = vertex[i];
+            vertex[i] = vertex[j];
+            vertex[j] = tv;
+        }
+
+        CompactGraph candidateGraph() {
+            int n = g.vertexCount();
+            int[] nearest = new int[OCTANTS * points];
+            double[] bestDistance = new double[OCTANTS];
+            int[] stack = new int[2 * Integer.SIZE + 2];
+            for (int p = 0; p < points; p++) {
+                nearestPerOctant(p, nearest, bestDistance, stack);
+            }
+
+            // q lies in octant o of p exactly when p lies in octant o + 4 of q, so a pair that picked
+            // each other is emitted once
+            int m = n - points;
+            for (int p = 0; p < points; p++) {
+                for (int o = 0; o < OCTANTS; o++) {
+                    if (keep(nearest, p, o)) {
+                        m++;
+                    }
+                }
+            }
+            int[] from = new int[m];
+            int[] to = new int[m];
+            int[] weight = new int[m];
+            int e = 0;
+            for (int p = 0; p < points; p++) {
+                for (int o = 0; o < OCTANTS; o++) {
+                    if (keep(nearest, p, o)) {
+                        int q = nearest[p * OCTANTS + o];
+                        double dx = x[q] - x[p];
+                        double dy = y[q] - y[p];
+                        from[e] = vertex[p];
+                        to[e] = vertex[q];
+                        weight[e] = weight(vertex[p], vertex[q], dx * dx + dy * dy);
+                        e++;
+                    }
+                }
+            }
+            for (int v = 0; v < n; v++) {
+                if (representative[v] != v) {
+                    from[e] = v;
+                    to[e] = representative[v];
+                    weight[e] = 0;
+                    e++;
+                }
+            }
+            CompactGraph candidates = new CompactGraph(g.names, g.nameToId, from, to, weight, m);
+            candidates.coordinates = g.coordinates;
+            return candidates;
+        }
+
+        private static boolean keep(int[] nearest, int p, int o) {
+            int q = nearest[p * OCTANTS + o];
+            return q != NONE && !(q < p && nearest[q * OCTANTS + ((o + OCTANTS / 2) & (OCTANTS - 1))] == p);
+        }
+
+        private int weight(int u, int v, double squaredDistance) {
+            double distance = Math.rint(Math.sqrt(squaredDistance));
+            if (distance > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("Distance between " + g.name(u) + " and " + g.name(v)
+                        + " does not fit an int weight");
+            }
+            return (int) distance;
+        }
+
+        private void nearestPerOctant(int p, int[] nearest, double[] bestDistance, int[] stack) {
+            int base = p * OCTANTS;
+            Arrays.fill(nearest, base, base + OCTANTS, NONE);
+            Arrays.fill(bestDistance, Double.POSITIVE_INFINITY);
+            double px = x[p];
+            double py = y[p];
+            int top = 0;
+            stack[top++] = 0;
+            while (top > 0) {
+                int node = stack[--top];
+                if (!worthVisiting(node, px, py, bestDistance)) {
+                    continue;
+                }
+                if (nodeLeft[node] != NONE) {
+                    int left = nodeLeft[node];
+                    int right = nodeRight[node];
+                    if (boxDistance(left, px, py) <= boxDistance(right, px, py)) {
+                        stack[top++] = right;
+                        stack[top++] = left;
+                    } else {
+                        stack[top++] = left;
+                        stack[top++] = right;
+                    }
+                    continue;
+                }
+                for (int q = nodeLo[node]; q < nodeHi[node]; q++) {
+                    if (q == p) {
+                        continue;
+                    }
+                    double dx = x[q] - px;
+                    double dy = y[q] - py;
+                    double distance = dx * dx + dy * dy;
+                    int o = octant(dx, dy);
+                    if (distance < bestDistance[o] || (distance == bestDistance[o] && q < nearest[base + o])) {
+                        bestDistance[o] = distance;
+                        nearest[base + o] = q;
+                    }
+                }
+                if (Metrics.ENABLED) {
+                    scanned += nodeHi[node] - nodeLo[node];
+                }
+            }
+        }
+
+        private double boxDistance(int node, double px, double py) {
+            double dx = Math.max(Math.max(minX[node] - px, px - maxX[node]), 0);
+            double dy = Math.max(Math.max(minY[node] - py, py - maxY[node]), 0);
+            return dx * dx + dy * dy;
+        }
+
+        private boolean worthVisiting(int node, double px, double py, double[] bestDistance) {
+            double distance = boxDistance(node, px, py);
+            double x0 = minX[node] - px;
+            double x1 = maxX[node] - px;
+            double y0 = minY[node] - py;
+            double y1 = maxY[node] - py;
+            for (int o = 0; o < OCTANTS; o++) {
+                if (distance <= bestDistance[o] && mayIntersect(o, x0, x1, y0, y1)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        // octants are the halves of each quadrant, rotated into a > 0, b >= 0 and split on b < a;
+        // only sign tests and comparisons are involved, so a point and its box always agree
+        static int octant(double dx, double dy) {
+            double a;
+            double b;
+            int quadrant;
+            if (dx > 0 && dy >= 0) {
+                quadrant = 0;
+                a = dx;
+                b = dy;
+            } else if (dx <= 0 && dy > 0) {
+                quadrant = 1;
+                a = dy;
+                b = -dx;
+            } else if (dx < 0 && dy <= 0) {
+                quadrant = 2;
+                a = -dx;
+                b = -dy;
+            } else {
+                quadrant = 3;
+                a = -dy;
+                b = dx;
+            }
+            return 2 * quadrant + (b < a ? 0 : 1);
+        }
+
+        private static boolean mayIntersect(int octant, double x0, double x1, double y0, double y1) {
+            double a0;
+            double a1;
+            double b0;
+            double b1;
+            switch (octant >> 1) {
+                case 0:
+                    a0 = x0;
+                    a1 = x1;
+                    b0 = y0;
+                    b1 = y1;
+                    break;
+                case 1:
+                    a0 = y0;
+                    a1 = y1;
+                    b0 = -x1;
+                    b1 = -x0;
+                    break;
+                case 2:
+                    a0 = -x1;
+                    a1 = -x0;
+                    b0 = -y1;
+                    b1 = -y0;
+                    break;
+                default:
+                    a0 = -y1;
+                    a1 = -y0;
+                    b0 = x0;
+                    b1 = x1;
+            }
+            if (a1 <= 0 || b1 < 0) {
+                return false;
+            }
+            return (octant & 1) == 0 ? b0 < a1 : b1 >= a0;
+        }
+    }
+}
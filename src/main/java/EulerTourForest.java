@@ -0,0 +1,291 @@
+import java.util.*;
+
+// Euler tours of a spanning forest kept in treaps: every vertex has one node, every tree edge two arc
+// nodes (u->v and v->u). Subtree aggregates give tree size, a flagged edge and the smallest key stored
+// on any vertex of the tree, each in O(log V) expected.
+class EulerTourForest {
+    private static final int NIL = 0;
+    private static final long NO_KEY = Long.MAX_VALUE;
+
+    private final int vertexCount;
+    private int[] left;
+    private int[] right;
+    private int[] parent;
+    private int[] priority;
+    private int[] size;
+    private int[] vertices;
+    private int[] flags;
+    private boolean[] flagged;
+    private long[] key;
+    private long[] minKey;
+    private int[] edgeOf;
+    private int[] twin;
+    private int nodeCount;
+    private int freeList = NIL;
+    private int seed = 0x2545F491;
+
+    private int[] arcOf = new int[16];
+    private final List<TreeSet<Long>> keys;
+
+    private int splitLeft;
+    private int splitRight;
+
+    public EulerTourForest(int vertexCount) {
+        this.vertexCount = vertexCount;
+        int capacity = vertexCount + 16;
+        left = new int[capacity];
+        right = new int[capacity];
+        parent = new int[capacity];
+        priority = new int[capacity];
+        size = new int[capacity];
+        vertices = new int[capacity];
+        flags = new int[capacity];
+        flagged = new boolean[capacity];
+        key = new long[capacity];
+        minKey = new long[capacity];
+        edgeOf = new int[capacity];
+        twin = new int[capacity];
+        keys = new ArrayList<>(Collections.nCopies(vertexCount, (TreeSet<Long>) null));
+        minKey[NIL] = NO_KEY;
+        for (int x = 1; x <= vertexCount; x++) {
+            init(x);
+            vertices[x] = 1;
+        }
+        nodeCount = vertexCount + 1;
+    }
+
+    public boolean connected(int u, int v) {
+        return u == v || root(u + 1) == root(v + 1);
+    }
+
+    // number of vertices in the tree of v
+    public int size(int v) {
+        return vertices[root(v + 1)];
+    }
+
+    public void link(int e, int u, int v) {
+        int a = allocate(e);
+        int b = allocate(e);
+        twin[a] = b;
+        twin[b] = a;
+        if (e >= arcOf.length) {
+            arcOf = Arrays.copyOf(arcOf, Math.max(e + 1, arcOf.length + (arcOf.length >> 1)));
+        }
+        arcOf[e] = a;
+        int tree = merge(merge(reroot(u + 1), a), merge(reroot(v + 1), b));
+        parent[tree] = NIL;
+    }
+
+    public void cut(int e) {
+        int a = arcOf[e];
+        int b = twin[a];
+        arcOf[e] = NIL;
+        int i = rank(a);
+        int j = rank(b);
+        if (i > j) {
+            int t = a;
+            a = b;
+            b = t;
+            t = i;
+            i = j;
+            j = t;
+        }
+        // tour is X a Y b Z: Y is one side, Z X the other
+        split(root(a), j + 1);
+        int rest = splitRight;
+        split(splitLeft, j);
+        split(splitLeft, i + 1);
+        int inner = splitRight;
+        split(splitLeft, i);
+        parent[inner] = NIL;
+        int outer = merge(splitLeft, rest);
+        parent[outer] = NIL;
+        release(a);
+        release(b);
+    }
+
+    public void setFlag(int e, boolean on) {
+        int a = arcOf[e];
+        flagged[a] = on;
+        pull(a);
+    }
+
+    // some edge flagged in the tree of v, or -1
+    public int flaggedEdge(int v) {
+        int x = root(v + 1);
+        if (flags[x] == 0) {
+            return -1;
+        }
+        while (!flagged[x]) {
+            x = flags[left[x]] > 0 ? left[x] : right[x];
+        }
+        return edgeOf[x];
+    }
+
+    public void addKey(int v, long k) {
+        TreeSet<Long> set = keys.get(v);
+        if (set == null) {
+            set = new TreeSet<>();
+            keys.set(v, set);
+        }
+        set.add(k);
+        if (k < key[v + 1]) {
+            key[v + 1] = k;
+            pull(v + 1);
+        }
+    }
+
+    public void removeKey(int v, long k) {
+        TreeSet<Long> set = keys.get(v);
+        set.remove(k);
+        if (k == key[v + 1]) {
+            key[v + 1] = set.isEmpty() ? NO_KEY : set.first();
+            pull(v + 1);
+        }
+    }
+
+    // smallest key on any vertex of the tree of v, Long.MAX_VALUE if none
+    public long minKey(int v) {
+        return minKey[root(v + 1)];
+    }
+
+    private void init(int x) {
+        left[x] = NIL;
+        right[x] = NIL;
+        parent[x] = NIL;
+        seed ^= seed << 13;
+        seed ^= seed >>> 17;
+        seed ^= seed << 5;
+        priority[x] = seed;
+        size[x] = 1;
+        vertices[x] = 0;
+        flags[x] = 0;
+        flagged[x] = false;
+        key[x] = NO_KEY;
+        minKey[x] = NO_KEY;
+    }
+
+    private int allocate(int e) {
+        int x = freeList;
+        if (x != NIL) {
+            freeList = parent[x];
+        } else {
+            if (nodeCount == left.length) {
+                grow();
+            }
+            x = nodeCount++;
+        }
+        init(x);
+        edgeOf[x] = e;
+        return x;
+    }
+
+    private void release(int x) {
+        parent[x] = freeList;
+        freeList = x;
+    }
+
+    private void grow() {
+        int capacity = left.length + (left.length >> 1);
+        left = Arrays.copyOf(left, capacity);
+        right = Arrays.copyOf(right, capacity);
+        parent = Arrays.copyOf(parent, capacity);
+        priority = Arrays.copyOf(priority, capacity);
+        size = Arrays.copyOf(size, capacity);
+        vertices = Arrays.copyOf(vertices, capacity);
+        flags = Arrays.copyOf(flags, capacity);
+        flagged = Arrays.copyOf(flagged, capacity);
+        key = Arrays.copyOf(key, capacity);
+        minKey = Arrays.copyOf(minKey, capacity);
+        edgeOf = Arrays.copyOf(edgeOf, capacity);
+        twin = Arrays.copyOf(twin, capacity);
+    }
+
+    private void update(int x) {
+        int l = left[x];
+        int r = right[x];
+        size[x] = 1 + size[l] + size[r];
+        vertices[x] = (x <= vertexCount ? 1 : 0) + vertices[l] + vertices[r];
+        flags[x] = (flagged[x] ? 1 : 0) + flags[l] + flags[r];
+        minKey[x] = Math.min(key[x], Math.min(minKey[l], minKey[r]));
+    }
+
+    private void pull(int x) {
+        for (; x != NIL; x = parent[x]) {
+            update(x);
+        }
+    }
+
+    private int root(int x) {
+        while (parent[x] != NIL) {
+            x = parent[x];
+        }
+        return x;
+    }
+
+    private int rank(int x) {
+        int r = size[left[x]];
+        for (int p = parent[x]; p != NIL; x = p, p = parent[p]) {
+            if (right[p] == x) {
+                r += size[left[p]] + 1;
+            }
+        }
+        return r;
+    }
+
+    // rotate the tour of x so that it starts at x
+    private int reroot(int x) {
+        int k = rank(x);
+        if (k == 0) {
+            return root(x);
+        }
+        split(root(x), k);
+        int tree = merge(splitRight, splitLeft);
+        parent[tree] = NIL;
+        return tree;
+    }
+
+    // first k nodes of t into splitLeft, the rest into splitRight
+    private void split(int t, int k) {
+        if (t == NIL) {
+            splitLeft = NIL;
+            splitRight = NIL;
+            return;
+        }
+        if (size[left[t]] >= k) {
+            split(left[t], k);
+            left[t] = splitRight;
+            parent[splitRight] = t;
+            splitRight = t;
+        } else {
+            split(right[t], k - size[left[t]] - 1);
+            right[t] = splitLeft;
+            parent[splitLeft] = t;
+            splitLeft = t;
+        }
+        update(t);
+        parent[splitLeft] = NIL;
+        parent[splitRight] = NIL;
+    }
+
+    private int merge(int a, int b) {
+        if (a == NIL) {
+            return b;
+        }
+        if (b == NIL) {
+            return a;
+        }
+        if (priority[a] > priority[b]) {
+            int r = merge(right[a], b);
+            right[a] = r;
+            parent[r] = a;
+            update(a);
+            return a;
+        }
+        int l = merge(a, left[b]);
+        left[b] = l;
+        parent[l] = b;
+        update(b);
+        return b;
+    }
+}
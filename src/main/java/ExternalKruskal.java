@@ -0,0 +1,387 @@
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.*;
+import java.nio.file.*;
+import java.util.*;
+
+public class ExternalKruskal {
+    static final long DEFAULT_MEMORY_BUDGET = 256L << 20;
+    private static final int RECORD_BYTES = 16;
+    private static final int IO_BUFFER_BYTES = 1 << 20;
+    private static final int MAX_FAN_IN = 512;
+    private static final long MIN_MEMORY_BUDGET = 4L * IO_BUFFER_BYTES;
+
+    private final CompactGraph g;
+    private final Path tempRoot;
+    private final int chunkEdges;
+    private final int fanIn;
+    private Path tempDir;
+    private int runCounter;
+    private long sortNanos;
+
+    private ExternalKruskal(CompactGraph g, long memoryBudget, Path tempRoot) {
+        this.g = g;
+        this.tempRoot = tempRoot;
+        // keys plus the radix sort buffer cost 16 bytes per edge; one I/O buffer is kept for the writer
+        long edges = (memoryBudget - IO_BUFFER_BYTES) / (2 * Long.BYTES);
+        this.chunkEdges = (int) Math.max(1, Math.min(edges, Integer.MAX_VALUE - 8));
+        this.fanIn = (int) Math.max(2, Math.min(MAX_FAN_IN, memoryBudget / IO_BUFFER_BYTES - 1));
+    }
+
+    public static MSTResult run(Graph graph) {
+        return run(graph, DEFAULT_MEMORY_BUDGET, Paths.get(System.getProperty("java.io.tmpdir")));
+    }
+
+    public static MSTResult run(Graph graph, long memoryBudget, Path tempRoot) {
+        if (memoryBudget < MIN_MEMORY_BUDGET) {
+            throw new IllegalArgumentException("Memory budget must be at least " + MIN_MEMORY_BUDGET + " bytes: " + memoryBudget);
+        }
+        long startTime = System.nanoTime();
+        PhaseMetrics metrics = Metrics.start("external_kruskal");
+        ExternalKruskal ek = new ExternalKruskal(graph.getCompact(), memoryBudget, tempRoot);
+        try {
+            return ek.solve(metrics, startTime);
+        } catch (IOException e) {
+            throw new UncheckedIOException("External Kruskal failed for graph " + graph.getId(), e);
+        } finally {
+            ek.deleteTempDir();
+        }
+    }
+
+    private MSTResult solve(PhaseMetrics metrics, long startTime) throws IOException {
+        int n = g.vertexCount();
+        int m = g.edgeCount();
+
+        EdgeRun sorted;
+        if (m <= chunkEdges) {
+            long sortStart = Metrics.now();
+            long[] keys = EdgeSorter.sortedKeys(g);
+            sorted = new ArrayRun(g, keys);
+            if (Metrics.ENABLED) {
+                sortNanos += System.nanoTime() - sortStart;
+            }
+        } else {
+            sorted = mergeRuns(spillRuns(m));
+        }
+
+        long unionStart = Metrics.now();
+        int[] treeEdges = new int[Math.max(n - 1, 0)];
+        int treeSize = 0;
+        int totalWeight = 0;
+        long scanned = 0;
+        DSU dsu = new DSU(n);
+        try {
+            while (treeSize < n - 1 && sorted.advance()) {
+                if (dsu.union(sorted.from, sorted.to)) {
+                    int e = LongMinHeap.valueOf(sorted.key);
+                    treeEdges[treeSize++] = e;
+                    totalWeight += LongMinHeap.weightOf(sorted.key);
+                }
+                if (Metrics.ENABLED) {
+                    scanned++;
+                }
+            }
+        } finally {
+            sorted.close();
+        }
+
+        long assemblyStart = Metrics.now();
+        List<Edge> mstEdges = new ArrayList<>(treeSize);
+        for (int i = 0; i < treeSize; i++) {
+            mstEdges.add(g.toEdge(treeEdges[i]));
+        }
+
+        if (Metrics.ENABLED) {
+            metrics.addPhase(PhaseMetrics.Phase.SORT, sortNanos);
+            metrics.addPhase(PhaseMetrics.Phase.UNION_FIND, assemblyStart - unionStart);
+            metrics.phase(PhaseMetrics.Phase.RESULT_ASSEMBLY, assemblyStart);
+            metrics.count(PhaseMetrics.Counter.EDGES_SCANNED, scanned);
+            metrics.countDsu(dsu);
+        }
+        boolean connected = n == 0 || treeSize == n - 1;
+        return MSTResult.of(mstEdges, totalWeight, metrics, startTime, connected);
+    }
+
+    private Deque<Path> spillRuns(int m) throws IOException {
+        long startTime = Metrics.now();
+        Deque<Path> runs = new ArrayDeque<>();
+        long[] keys = new long[chunkEdges];
+        long[] buffer = new long[chunkEdges];
+        for (int base = 0; base < m; base += chunkEdges) {
+            int count = Math.min(chunkEdges, m - base);
+            for (int i = 0; i < count; i++) {
+                int e = base + i;
+                keys[i] = LongMinHeap.pack(g.weight(e), e);
+            }
+            EdgeSorter.radixSort(keys, 0, count, buffer);
+
+            Path run = newRunFile();
+            try (RunWriter writer = new RunWriter(run)) {
+                for (int i = 0; i < count; i++) {
+                    int e = LongMinHeap.valueOf(keys[i]);
+                    writer.write(keys[i], g.from(e), g.to(e));
+                }
+            }
+            runs.add(run);
+        }
+        if (Metrics.ENABLED) {
+            sortNanos += System.nanoTime() - startTime;
+        }
+        return runs;
+    }
+
+    private EdgeRun mergeRuns(Deque<Path> runs) throws IOException {
+        long startTime = Metrics.now();
+        while (runs.size() > fanIn) {
+            Path merged = newRunFile();
+            try (MergedRun group = open(runs, fanIn); RunWriter writer = new RunWriter(merged)) {
+                while (group.advance()) {
+                    writer.write(group.key, group.from, group.to);
+                }
+            }
+            runs.add(merged);
+        }
+        MergedRun merged = open(runs, runs.size());
+        if (Metrics.ENABLED) {
+            sortNanos += System.nanoTime() - startTime;
+        }
+        return merged;
+    }
+
+    private MergedRun open(Deque<Path> runs, int count) throws IOException {
+        EdgeRun[] inputs = new EdgeRun[count];
+        try {
+            for (int i = 0; i < count; i++) {
+                inputs[i] = new FileRun(runs.poll());
+            }
+            return new MergedRun(inputs);
+        } catch (IOException e) {
+            for (EdgeRun input : inputs) {
+                if (input != null) {
+                    input.close();
+                }
+            }
+            throw e;
+        }
+    }
+
+    private Path newRunFile() throws IOException {
+        if (tempDir == null) {
+            Files.createDirectories(tempRoot);
+            tempDir = Files.createTempDirectory(tempRoot, "mst-runs-");
+        }
+        return tempDir.resolve("run-" + (runCounter++) + ".bin");
+    }
+
+    private void deleteTempDir() {
+        if (tempDir == null) {
+            return;
+        }
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(tempDir)) {
+            for (Path file : files) {
+                Files.deleteIfExists(file);
+            }
+        } catch (IOException e) {
+            System.err.println("Warning: could not clean temporary directory " + tempDir + ": " + e.getMessage());
+        }
+        try {
+            Files.deleteIfExists(tempDir);
+        } catch (IOException e) {
+            System.err.println("Warning: could not remove temporary directory " + tempDir + ": " + e.getMessage());
+        }
+    }
+
+    static long parseSize(String value) {
+        String text = value.trim().toLowerCase(Locale.ROOT);
+        long unit = 1;
+        char suffix = text.isEmpty() ? ' ' : text.charAt(text.length() - 1);
+        if (suffix == 'k' || suffix == 'm' || suffix == 'g') {
+            unit = suffix == 'k' ? 1L << 10 : suffix == 'm' ? 1L << 20 : 1L << 30;
+            text = text.substring(0, text.length() - 1);
+        }
+        try {
+            return Long.parseLong(text) * unit;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid size '" + value + "' (expected bytes or a k/m/g suffix)");
+        }
+    }
+
+    abstract static class EdgeRun implements Closeable {
+        long key;
+        int from;
+        int to;
+
+        abstract boolean advance() throws IOException;
+
+        @Override
+        public void close() throws IOException {
+        }
+    }
+
+    static class ArrayRun extends EdgeRun {
+        private final CompactGraph g;
+        private final long[] keys;
+        private int next;
+
+        ArrayRun(CompactGraph g, long[] keys) {
+            this.g = g;
+            this.keys = keys;
+        }
+
+        @Override
+        boolean advance() {
+            if (next == keys.length) {
+                return false;
+            }
+            key = keys[next++];
+            int e = LongMinHeap.valueOf(key);
+            from = g.from(e);
+            to = g.to(e);
+            return true;
+        }
+    }
+
+    static class FileRun extends EdgeRun {
+        private final Path file;
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(IO_BUFFER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+
+        FileRun(Path file) throws IOException {
+            this.file = file;
+            this.channel = FileChannel.open(file, StandardOpenOption.READ);
+            buffer.flip();
+        }
+
+        @Override
+        boolean advance() throws IOException {
+            if (buffer.remaining() < RECORD_BYTES) {
+                buffer.compact();
+                while (buffer.position() < RECORD_BYTES) {
+                    if (channel.read(buffer) < 0) {
+                        break;
+                    }
+                }
+                buffer.flip();
+                if (buffer.remaining() < RECORD_BYTES) {
+                    return false;
+                }
+            }
+            key = buffer.getLong();
+            from = buffer.getInt();
+            to = buffer.getInt();
+            return true;
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+            Files.deleteIfExists(file);
+        }
+    }
+
+    static class MergedRun extends EdgeRun {
+        private final EdgeRun[] inputs;
+        private final int[] heap;
+        private int size;
+        private EdgeRun last;
+
+        MergedRun(EdgeRun[] inputs) throws IOException {
+            this.inputs = inputs;
+            this.heap = new int[inputs.length];
+            for (int i = 0; i < inputs.length; i++) {
+                if (inputs[i].advance()) {
+                    heap[size++] = i;
+                }
+            }
+            for (int i = size / 2 - 1; i >= 0; i--) {
+                siftDown(i);
+            }
+        }
+
+        @Override
+        boolean advance() throws IOException {
+            if (last != null) {
+                if (!last.advance()) {
+                    heap[0] = heap[--size];
+                }
+                siftDown(0);
+            }
+            if (size == 0) {
+                last = null;
+                return false;
+            }
+            last = inputs[heap[0]];
+            key = last.key;
+            from = last.from;
+            to = last.to;
+            return true;
+        }
+
+        private void siftDown(int i) {
+            int item = heap[i];
+            while (true) {
+                int child = 2 * i + 1;
+                if (child >= size) {
+                    break;
+                }
+                if (child + 1 < size && inputs[heap[child + 1]].key < inputs[heap[child]].key) {
+                    child++;
+                }
+                if (inputs[heap[child]].key >= inputs[item].key) {
+                    break;
+                }
+                heap[i] = heap[child];
+                i = child;
+            }
+            heap[i] = item;
+        }
+
+        @Override
+        public void close() throws IOException {
+            IOException failure = null;
+            for (EdgeRun input : inputs) {
+                try {
+                    input.close();
+                } catch (IOException e) {
+                    failure = e;
+                }
+            }
+            if (failure != null) {
+                throw failure;
+            }
+        }
+    }
+
+    static class RunWriter implements Closeable {
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(IO_BUFFER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+
+        RunWriter(Path file) throws IOException {
+            this.channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+        }
+
+        void write(long key, int from, int to) throws IOException {
+            if (buffer.remaining() < RECORD_BYTES) {
+                flush();
+            }
+            buffer.putLong(key).putInt(from).putInt(to);
+        }
+
+        private void flush() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                flush();
+            } finally {
+                channel.close();
+            }
+        }
+    }
+}
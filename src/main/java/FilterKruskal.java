@@ -0,0 +1,189 @@
+import java.util.*;
+import java.util.concurrent.*;
+
+public class FilterKruskal {
+    private static final int BASE_CASE_SIZE = 4096;
+    private static final int PIVOT_SAMPLE_SIZE = 31;
+
+    private final CompactGraph g;
+    private final ForkJoinPool pool;
+    private final DSU dsu;
+    private final long[] keys;
+    private final long[] buffer;
+    private final int[] treeEdges;
+    private int treeSize;
+    private long scanned;
+    private long sortNanos;
+    private long unionNanos;
+
+    private FilterKruskal(CompactGraph g, ForkJoinPool pool) {
+        this.g = g;
+        this.pool = pool;
+        this.dsu = new DSU(g.vertexCount());
+        this.keys = new long[g.edgeCount()];
+        this.buffer = new long[g.edgeCount()];
+        this.treeEdges = new int[Math.max(g.vertexCount() - 1, 0)];
+    }
+
+    public static MSTResult run(Graph graph) {
+        return run(graph, ForkJoinPool.commonPool());
+    }
+
+    public static MSTResult run(Graph graph, ForkJoinPool pool) {
+        long startTime = System.nanoTime();
+        PhaseMetrics metrics = Metrics.start("filter_kruskal");
+        CompactGraph g = graph.getCompact();
+        FilterKruskal fk = new FilterKruskal(g, pool);
+
+        int m = g.edgeCount();
+        int chunkSize = ForkJoinChunks.chunkSize(m, pool.getParallelism());
+        ForkJoinChunks.forEachChunk(pool, (m + chunkSize - 1) / chunkSize, c -> {
+            int to = Math.min(c * chunkSize + chunkSize, m);
+            for (int e = c * chunkSize; e < to; e++) {
+                fk.keys[e] = LongMinHeap.pack(g.weight(e), e);
+            }
+        });
+        fk.solve(0, m);
+
+        long assemblyStart = Metrics.now();
+        int totalWeight = 0;
+        List<Edge> mstEdges = new ArrayList<>(fk.treeSize);
+        for (int i = 0; i < fk.treeSize; i++) {
+            mstEdges.add(g.toEdge(fk.treeEdges[i]));
+            totalWeight += g.weight(fk.treeEdges[i]);
+        }
+
+        if (Metrics.ENABLED) {
+            metrics.addPhase(PhaseMetrics.Phase.SORT, fk.sortNanos);
+            metrics.addPhase(PhaseMetrics.Phase.UNION_FIND, fk.unionNanos);
+            metrics.phase(PhaseMetrics.Phase.RESULT_ASSEMBLY, assemblyStart);
+            metrics.count(PhaseMetrics.Counter.EDGES_SCANNED, fk.scanned);
+            metrics.countDsu(fk.dsu);
+        }
+        boolean connected = g.vertexCount() == 0 || fk.treeSize == g.vertexCount() - 1;
+        return MSTResult.of(mstEdges, totalWeight, metrics, startTime, connected);
+    }
+
+    private boolean done() {
+        return treeSize == treeEdges.length;
+    }
+
+    private void solve(int lo, int hi) {
+        if (hi - lo <= BASE_CASE_SIZE) {
+            kruskal(lo, hi);
+            return;
+        }
+        int split = partition(lo, hi, pivot(lo, hi));
+        solve(lo, split);
+        if (done()) {
+            return;
+        }
+        int end = filter(split, hi);
+        solve(split, end);
+    }
+
+    private void kruskal(int lo, int hi) {
+        long sortStart = Metrics.now();
+        EdgeSorter.radixSort(keys, lo, hi, buffer);
+        long unionStart = Metrics.now();
+        for (int i = lo; i < hi && !done(); i++) {
+            int e = LongMinHeap.valueOf(keys[i]);
+            if (dsu.union(g.from(e), g.to(e))) {
+                treeEdges[treeSize++] = e;
+            }
+        }
+        if (Metrics.ENABLED) {
+            sortNanos += unionStart - sortStart;
+            unionNanos += System.nanoTime() - unionStart;
+            scanned += hi - lo;
+        }
+    }
+
+    private long pivot(int lo, int hi) {
+        long[] sample = new long[PIVOT_SAMPLE_SIZE];
+        long step = (long) (hi - lo) / PIVOT_SAMPLE_SIZE;
+        for (int i = 0; i < PIVOT_SAMPLE_SIZE; i++) {
+            sample[i] = keys[lo + (int) (i * step)];
+        }
+        Arrays.sort(sample);
+        return sample[PIVOT_SAMPLE_SIZE / 2];
+    }
+
+    private int partition(int lo, int hi, long pivot) {
+        long startTime = Metrics.now();
+        int count = hi - lo;
+        int chunkSize = ForkJoinChunks.chunkSize(count, pool.getParallelism());
+        int chunks = (count + chunkSize - 1) / chunkSize;
+        int[] lightCounts = new int[chunks];
+
+        ForkJoinChunks.forEachChunk(pool, chunks, c -> {
+            int from = lo + c * chunkSize;
+            int to = Math.min(from + chunkSize, hi);
+            int light = 0;
+            for (int i = from; i < to; i++) {
+                if (keys[i] <= pivot) {
+                    light++;
+                }
+            }
+            lightCounts[c] = light;
+        });
+
+        int[] lightOffsets = new int[chunks + 1];
+        for (int c = 0; c < chunks; c++) {
+            lightOffsets[c + 1] = lightOffsets[c] + lightCounts[c];
+        }
+        int totalLight = lightOffsets[chunks];
+
+        ForkJoinChunks.forEachChunk(pool, chunks, c -> {
+            int from = lo + c * chunkSize;
+            int to = Math.min(from + chunkSize, hi);
+            int light = lo + lightOffsets[c];
+            int heavy = lo + totalLight + (c * chunkSize - lightOffsets[c]);
+            for (int i = from; i < to; i++) {
+                if (keys[i] <= pivot) {
+                    buffer[light++] = keys[i];
+                } else {
+                    buffer[heavy++] = keys[i];
+                }
+            }
+        });
+        System.arraycopy(buffer, lo, keys, lo, count);
+        if (Metrics.ENABLED) {
+            sortNanos += System.nanoTime() - startTime;
+            scanned += count;
+        }
+        return lo + totalLight;
+    }
+
+    private int filter(int lo, int hi) {
+        long startTime = Metrics.now();
+        int count = hi - lo;
+        int chunkSize = ForkJoinChunks.chunkSize(count, pool.getParallelism());
+        int chunks = (count + chunkSize - 1) / chunkSize;
+        int[] keptCounts = new int[chunks];
+
+        ForkJoinChunks.forEachChunk(pool, chunks, c -> {
+            int from = lo + c * chunkSize;
+            int to = Math.min(from + chunkSize, hi);
+            int kept = from;
+            for (int i = from; i < to; i++) {
+                int e = LongMinHeap.valueOf(keys[i]);
+                if (!dsu.connected(g.from(e), g.to(e))) {
+                    buffer[kept++] = keys[i];
+                }
+            }
+            keptCounts[c] = kept - from;
+        });
+
+        int out = lo;
+        for (int c = 0; c < chunks; c++) {
+            System.arraycopy(buffer, lo + c * chunkSize, keys, out, keptCounts[c]);
+            out += keptCounts[c];
+        }
+        if (Metrics.ENABLED) {
+            unionNanos += System.nanoTime() - startTime;
+            scanned += count;
+        }
+        return out;
+    }
+}
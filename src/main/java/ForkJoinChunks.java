@@ -0,0 +1,42 @@
+import java.util.concurrent.*;
+import java.util.function.*;
+
+class ForkJoinChunks {
+    static final int MIN_CHUNK_SIZE = 4096;
+
+    static int chunkSize(int count, int parallelism) {
+        return Math.max(MIN_CHUNK_SIZE, (count + parallelism * 4 - 1) / (parallelism * 4));
+    }
+
+    static void forEachChunk(ForkJoinPool pool, int chunks, IntConsumer body) {
+        if (chunks <= 1) {
+            if (chunks == 1) {
+                body.accept(0);
+            }
+            return;
+        }
+        pool.invoke(new ChunkAction(0, chunks, body));
+    }
+
+    private static class ChunkAction extends RecursiveAction {
+        private final int from;
+        private final int to;
+        private final IntConsumer body;
+
+        ChunkAction(int from, int to, IntConsumer body) {
+            this.from = from;
+            this.to = to;
+            this.body = body;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from == 1) {
+                body.accept(from);
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new ChunkAction(from, mid, body), new ChunkAction(mid, to, body));
+        }
+    }
+}
@@ -24,52 +24,68 @@ class Graph {
     int id;
     List<String> vertices;
     List<Edge> edges;
-    Map<String, List<Edge>> adjacencyList;
+    CompactGraph compact;
+    String contentHash;
+    ReducedGraph reduced;
     
+    // the lists are copied into CSR arrays and not retained; getVertices()/getEdges() are views over them
     public Graph(int id, List<String> vertices, List<Edge> edges) {
-        this.id = id;
-        this.vertices = vertices;
-        this.edges = edges;
-        buildAdjacencyList();
+        this(id, CompactGraph.of(vertices, edges));
     }
-    
-    private void buildAdjacencyList() {
-        adjacencyList = new HashMap<>();
-        for (String vertex : vertices) {
-            adjacencyList.put(vertex, new ArrayList<>());
-        }
-        for (Edge edge : edges) {
-            adjacencyList.get(edge.from).add(edge);
-            adjacencyList.get(edge.to).add(new Edge(edge.to, edge.from, edge.weight));
-        }
+
+    public Graph(int id, CompactGraph compact) {
+        this.id = id;
+        this.vertices = compact.vertexList();
+        this.edges = compact.edgeList();
+        this.compact = compact;
     }
     
     public int getId() { return id; }
     public List<String> getVertices() { return vertices; }
     public List<Edge> getEdges() { return edges; }
-    public Map<String, List<Edge>> getAdjacencyList() { return adjacencyList; }
-    public int getVertexCount() { return vertices.size(); }
-    public int getEdgeCount() { return edges.size(); }
+    public CompactGraph getCompact() { return compact; }
+    public int getVertexCount() { return compact.vertexCount(); }
+    public int getEdgeCount() { return compact.edgeCount(); }
 }
 
 class MSTResult {
     List<Edge> mstEdges;
     int totalWeight;
-    int operations;
+    long operations;
     long executionTimeMs;
     boolean connected;
+    PhaseMetrics metrics;
+    MSTPlan plan;
+    List<MSTComponent> components;
+    ReductionStats reduction;
+    boolean cached;
     
-    public MSTResult(List<Edge> mstEdges, int totalWeight, int operations, long executionTimeMs, boolean connected) {
+    public MSTResult(List<Edge> mstEdges, int totalWeight, long operations, long executionTimeMs, boolean connected) {
         this.mstEdges = mstEdges;
         this.totalWeight = totalWeight;
         this.operations = operations;
         this.executionTimeMs = executionTimeMs;
         this.connected = connected;
     }
+
+    static MSTResult of(List<Edge> mstEdges, int totalWeight, PhaseMetrics metrics, long startTime, boolean connected) {
+        long executionTime = (System.nanoTime() - startTime) / 1_000_000;
+        if (metrics == null) {
+            return new MSTResult(mstEdges, totalWeight, 0, executionTime, connected);
+        }
+        MSTResult result = new MSTResult(mstEdges, totalWeight, metrics.finish().totalOperations(), executionTime, connected);
+        result.metrics = metrics;
+        return result;
+    }
     
     public List<Edge> getMstEdges() { return mstEdges; }
     public int getTotalWeight() { return totalWeight; }
-    public int getOperations() { return operations; }
+    public long getOperations() { return operations; }
+    public PhaseMetrics getMetrics() { return metrics; }
+    public MSTPlan getPlan() { return plan; }
+    public List<MSTComponent> getComponents() { return components; }
+    public ReductionStats getReduction() { return reduction; }
+    public boolean isCached() { return cached; }
     public long getExecutionTimeMs() { return executionTimeMs; }
     public boolean isConnected() { return connected; }
 }
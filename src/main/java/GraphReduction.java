@@ -0,0 +1,427 @@
+import java.util.*;
+import java.util.function.*;
+
+public class GraphReduction {
+    private static final int NONE = -1;
+
+    public static Function<Graph, MSTResult> around(Function<Graph, MSTResult> engine) {
+        return graph -> shared(graph).run(engine);
+    }
+
+    // every engine wrapped by around() sees the same reduction; the first one to ask computes it
+    static ReducedGraph shared(Graph graph) {
+        synchronized (graph) {
+            if (graph.reduced == null) {
+                graph.reduced = reduce(graph);
+            }
+            return graph.reduced;
+        }
+    }
+
+    public static ReducedGraph reduce(Graph graph) {
+        long startTime = System.nanoTime();
+        CompactGraph g = graph.getCompact();
+        int n = g.vertexCount();
+        int m = g.edgeCount();
+        ReductionStats stats = new ReductionStats(n, m);
+
+        // parallel edges: one slot per packed (min, max) pair holding the lightest edge seen so far
+        PairTable pairs = new PairTable(m);
+        boolean[] alive = new boolean[m];
+        int[] degree = new int[n];
+        for (int e = 0; e < m; e++) {
+            int u = g.from(e);
+            int v = g.to(e);
+            if (u == v) {
+                stats.selfLoops++;
+                continue;
+            }
+            long pair = pack(u, v);
+            int kept = pairs.get(pair);
+            if (kept == NONE) {
+                pairs.put(pair, e);
+                alive[e] = true;
+                degree[u]++;
+                degree[v]++;
+            } else {
+                stats.parallelEdges++;
+                if (g.weight(e) < g.weight(kept)) {
+                    alive[kept] = false;
+                    alive[e] = true;
+                    pairs.put(pair, e);
+                }
+            }
+        }
+
+        // incidence lists over edge endpoints (slot 2e is the from side, 2e + 1 the to side) so that
+        // contracted edges can be re-attached to the surviving vertex in O(1)
+        int[] endpoint = new int[2 * m];
+        int[] head = new int[n];
+        int[] next = new int[2 * m];
+        Arrays.fill(head, NONE);
+        for (int e = 0; e < m; e++) {
+            if (alive[e]) {
+                endpoint[2 * e] = g.from(e);
+                endpoint[2 * e + 1] = g.to(e);
+                attach(head, next, 2 * e, g.from(e));
+                attach(head, next, 2 * e + 1, g.to(e));
+            }
+        }
+
+        // a leaf's only edge and the lighter edge of a degree-2 vertex are in some MST (cut property),
+        // so they are forced and the vertex is merged into the other endpoint; the heavier edge of a
+        // chain vertex is re-attached there and may collapse with an existing edge into a parallel pair
+        int[] queue = new int[n];
+        int tail = 0;
+        boolean[] queued = new boolean[n];
+        for (int v = 0; v < n; v++) {
+            if (degree[v] == 1 || degree[v] == 2) {
+                queue[tail++] = v;
+                queued[v] = true;
+            }
+        }
+
+        boolean[] removed = new boolean[n];
+        int[] mergedInto = new int[n];
+        Arrays.fill(mergedInto, NONE);
+        int[] forced = new int[n];
+        int[] forcedVertex = new int[n];
+        int forcedCount = 0;
+        int[] slots = new int[2];
+        for (int i = 0; i < tail; i++) {
+            int v = queue[i];
+            if (degree[v] == 0) {
+                continue;
+            }
+            int found = 0;
+            for (int slot = head[v]; slot != NONE && found < degree[v]; slot = next[slot]) {
+                if (alive[slot >> 1] && endpoint[slot] == v) {
+                    slots[found++] = slot;
+                }
+            }
+            int light = slots[0];
+            if (degree[v] == 2 && lighter(g, slots[1] >> 1, slots[0] >> 1)) {
+                light = slots[1];
+            }
+            int survivor = endpoint[light ^ 1];
+            alive[light >> 1] = false;
+            forced[forcedCount] = light >> 1;
+            forcedVertex[forcedCount++] = v;
+            removed[v] = true;
+            mergedInto[v] = survivor;
+
+            if (degree[v] == 1) {
+                stats.leafVertices++;
+                degree[v] = 0;
+                if (--degree[survivor] <= 2) {
+                    tail = enqueue(queue, queued, tail, survivor);
+                }
+                continue;
+            }
+
+            stats.chainVertices++;
+            degree[v] = 0;
+            int heavy = light == slots[0] ? slots[1] : slots[0];
+            int other = endpoint[heavy ^ 1];
+            endpoint[heavy] = survivor;
+            attach(head, next, heavy, survivor);
+
+            long pair = pack(survivor, other);
+            int existing = pairs.get(pair);
+            if (existing != NONE && existing != heavy >> 1 && alive[existing]
+                    && pack(endpoint[2 * existing], endpoint[2 * existing + 1]) == pair) {
+                stats.mergedEdges++;
+                int dropped = lighter(g, heavy >> 1, existing) ? existing : heavy >> 1;
+                alive[dropped] = false;
+                pairs.put(pair, dropped == existing ? heavy >> 1 : existing);
+                if (--degree[survivor] <= 2) {
+                    tail = enqueue(queue, queued, tail, survivor);
+                }
+                if (--degree[other] <= 2) {
+                    tail = enqueue(queue, queued, tail, other);
+                }
+            } else {
+                pairs.put(pair, heavy >> 1);
+            }
+        }
+
+        if (forcedCount == 0 && stats.selfLoops == 0 && stats.parallelEdges == 0) {
+            stats.reducedVertices = n;
+            stats.reducedEdges = m;
+            stats.nanos = System.nanoTime() - startTime;
+            return new ReducedGraph(graph, graph, null, new int[0], new int[0], null, stats);
+        }
+
+        int[] newId = new int[n];
+        int survivors = 0;
+        for (int v = 0; v < n; v++) {
+            if (!removed[v]) {
+                newId[v] = survivors++;
+            }
+        }
+        String[] names = new String[survivors];
+        Map<String, Integer> nameToId = new HashMap<>(survivors * 2);
+        for (int v = 0; v < n; v++) {
+            if (!removed[v]) {
+                names[newId[v]] = g.name(v);
+                nameToId.put(g.name(v), newId[v]);
+            }
+        }
+        int edges = 0;
+        for (int e = 0; e < m; e++) {
+            if (alive[e]) {
+                edges++;
+            }
+        }
+        int[] from = new int[edges];
+        int[] to = new int[edges];
+        int[] weight = new int[edges];
+        int k = 0;
+        for (int e = 0; e < m; e++) {
+            if (alive[e]) {
+                from[k] = newId[endpoint[2 * e]];
+                to[k] = newId[endpoint[2 * e + 1]];
+                weight[k++] = g.weight(e);
+            }
+        }
+        Graph reduced = new Graph(graph.getId(), new CompactGraph(names, nameToId, from, to, weight, edges));
+        stats.reducedVertices = survivors;
+        stats.reducedEdges = edges;
+        stats.nanos = System.nanoTime() - startTime;
+        return new ReducedGraph(graph, reduced, pairs, Arrays.copyOf(forced, forcedCount),
+                Arrays.copyOf(forcedVertex, forcedCount), mergedInto, stats);
+    }
+
+    private static boolean lighter(CompactGraph g, int e, int f) {
+        return g.weight(e) < g.weight(f) || (g.weight(e) == g.weight(f) && e < f);
+    }
+
+    private static int enqueue(int[] queue, boolean[] queued, int tail, int v) {
+        if (!queued[v]) {
+            queued[v] = true;
+            queue[tail++] = v;
+        }
+        return tail;
+    }
+
+    private static void attach(int[] head, int[] next, int slot, int v) {
+        next[slot] = head[v];
+        head[v] = slot;
+    }
+
+    static long pack(int u, int v) {
+        return u < v ? ((long) u << 32) | v : ((long) v << 32) | u;
+    }
+
+    static class PairTable {
+        private final long[] keys;
+        private final int[] values;
+        private final int mask;
+
+        PairTable(int expected) {
+            int capacity = Integer.highestOneBit(Math.max(2 * expected, 2) - 1) << 1;
+            keys = new long[capacity];
+            values = new int[capacity];
+            Arrays.fill(values, NONE);
+            mask = capacity - 1;
+        }
+
+        private int slot(long key) {
+            long hash = key * 0x9E3779B97F4A7C15L;
+            int slot = (int) (hash >>> 32) & mask;
+            while (values[slot] != NONE && keys[slot] != key) {
+                slot = (slot + 1) & mask;
+            }
+            return slot;
+        }
+
+        int get(long key) {
+            return values[slot(key)];
+        }
+
+        void put(long key, int value) {
+            int slot = slot(key);
+            keys[slot] = key;
+            values[slot] = value;
+        }
+    }
+}
+
+class ReducedGraph {
+    private static final int NONE = -1;
+
+    private final Graph original;
+    private final Graph reduced;
+    private final GraphReduction.PairTable pairs;
+    private final int[] forced;
+    private final int[] forcedVertex;
+    private final int[] mergedInto;
+    private final ReductionStats stats;
+
+    ReducedGraph(Graph original, Graph reduced, GraphReduction.PairTable pairs, int[] forced, int[] forcedVertex,
+                 int[] mergedInto, ReductionStats stats) {
+        this.original = original;
+        this.reduced = reduced;
+        this.pairs = pairs;
+        this.forced = forced;
+        this.forcedVertex = forcedVertex;
+        this.mergedInto = mergedInto;
+        this.stats = stats;
+    }
+
+    public MSTResult run(Function<Graph, MSTResult> engine) {
+        long startTime = System.nanoTime();
+        return expand(engine.apply(reduced), startTime);
+    }
+
+    public MSTResult expand(MSTResult result) {
+        return expand(result, System.nanoTime());
+    }
+
+    // the shared reduction is charged to every engine, so each reported time covers reduce + solve + expand
+    private MSTResult expand(MSTResult result, long startTime) {
+        long expandStart = System.nanoTime();
+        CompactGraph g = original.getCompact();
+        List<Edge> mstEdges = new ArrayList<>(forced.length + result.getMstEdges().size());
+        int totalWeight = result.getTotalWeight();
+        List<MSTComponent> components = null;
+        if (result.getComponents() == null) {
+            for (int e : forced) {
+                mstEdges.add(g.toEdge(e));
+                totalWeight += g.weight(e);
+            }
+            for (Edge edge : result.getMstEdges()) {
+                mstEdges.add(originalEdge(edge));
+            }
+        } else {
+            components = expandComponents(result.getComponents(), mstEdges);
+            for (int e : forced) {
+                totalWeight += g.weight(e);
+            }
+        }
+
+        MSTResult expanded = new MSTResult(mstEdges, totalWeight, result.getOperations(),
+                (stats.getNanos() + System.nanoTime() - startTime) / 1_000_000, result.isConnected());
+        expanded.plan = result.getPlan();
+        expanded.components = components;
+        expanded.reduction = stats;
+        PhaseMetrics metrics = result.getMetrics();
+        if (metrics != null) {
+            long nanos = stats.getNanos() + (System.nanoTime() - expandStart);
+            metrics.addPhase(PhaseMetrics.Phase.ADJACENCY_BUILD, nanos);
+            metrics.count(PhaseMetrics.Counter.EDGES_SCANNED, g.edgeCount());
+            metrics.totalNanos += nanos;
+            expanded.metrics = metrics;
+            expanded.operations = metrics.totalOperations();
+        }
+        return expanded;
+    }
+
+    // every original component keeps exactly one reduced component, so removed vertices and their
+    // forced edges join the component their merge chain ends in
+    private List<MSTComponent> expandComponents(List<MSTComponent> reducedComponents, List<Edge> mstEdges) {
+        CompactGraph g = original.getCompact();
+        int n = g.vertexCount();
+        int count = reducedComponents.size();
+        int[] component = new int[n];
+        for (int c = 0; c < count; c++) {
+            MSTComponent reducedComponent = reducedComponents.get(c);
+            component[g.id(reducedComponent.getRoot())] = c;
+            for (Edge edge : reducedComponent.getMstEdges()) {
+                component[g.id(edge.getFrom())] = c;
+                component[g.id(edge.getTo())] = c;
+            }
+        }
+        int[] extraVertices = new int[count];
+        List<List<Edge>> forcedEdges = new ArrayList<>(count);
+        int[] forcedWeight = new int[count];
+        for (int c = 0; c < count; c++) {
+            forcedEdges.add(new ArrayList<>());
+        }
+        for (int i = 0; i < forced.length; i++) {
+            int c = component[survivor(forcedVertex[i])];
+            extraVertices[c]++;
+            forcedEdges.get(c).add(g.toEdge(forced[i]));
+            forcedWeight[c] += g.weight(forced[i]);
+        }
+
+        int[] start = new int[count + 1];
+        for (int c = 0; c < count; c++) {
+            start[c] = mstEdges.size();
+            mstEdges.addAll(forcedEdges.get(c));
+            for (Edge edge : reducedComponents.get(c).getMstEdges()) {
+                mstEdges.add(originalEdge(edge));
+            }
+        }
+        start[count] = mstEdges.size();
+        List<MSTComponent> components = new ArrayList<>(count);
+        for (int c = 0; c < count; c++) {
+            MSTComponent reducedComponent = reducedComponents.get(c);
+            components.add(new MSTComponent(reducedComponent.getRoot(),
+                    reducedComponent.getVertexCount() + extraVertices[c],
+                    mstEdges.subList(start[c], start[c + 1]),
+                    reducedComponent.getTotalWeight() + forcedWeight[c]));
+        }
+        return components;
+    }
+
+    private int survivor(int v) {
+        int root = v;
+        while (mergedInto[root] != NONE) {
+            root = mergedInto[root];
+        }
+        while (mergedInto[v] != NONE) {
+            int parent = mergedInto[v];
+            mergedInto[v] = root;
+            v = parent;
+        }
+        return root;
+    }
+
+    private Edge originalEdge(Edge edge) {
+        if (pairs == null) {
+            return edge;
+        }
+        CompactGraph g = original.getCompact();
+        return g.toEdge(pairs.get(GraphReduction.pack(g.id(edge.getFrom()), g.id(edge.getTo()))));
+    }
+
+    public Graph getOriginal() { return original; }
+    public Graph getReduced() { return reduced; }
+    public ReductionStats getStats() { return stats; }
+}
+
+class ReductionStats {
+    int originalVertices;
+    int originalEdges;
+    int selfLoops;
+    int parallelEdges;
+    int leafVertices;
+    int chainVertices;
+    int mergedEdges;
+    int reducedVertices;
+    int reducedEdges;
+    long nanos;
+
+    ReductionStats(int originalVertices, int originalEdges) {
+        this.originalVertices = originalVertices;
+        this.originalEdges = originalEdges;
+    }
+
+    public int getOriginalVertices() { return originalVertices; }
+    public int getOriginalEdges() { return originalEdges; }
+    public int getSelfLoops() { return selfLoops; }
+    public int getParallelEdges() { return parallelEdges; }
+    public int getLeafVertices() { return leafVertices; }
+    public int getChainVertices() { return chainVertices; }
+    public int getMergedEdges() { return mergedEdges; }
+    public int getReducedVertices() { return reducedVertices; }
+    public int getReducedEdges() { return reducedEdges; }
+    public long getNanos() { return nanos; }
+
+    public String describe() {
+        return String.format(Locale.ROOT, "V %d -> %d, E %d -> %d (%d self-loops, %d parallel edges, %d leaves and %d chain vertices contracted, %d edges merged) in %.2f ms",
+                originalVertices, reducedVertices, originalEdges, reducedEdges, selfLoops, parallelEdges,
+                leafVertices, chainVertices, mergedEdges, nanos / 1e6);
+    }
+}
@@ -0,0 +1,61 @@
+import java.util.*;
+
+class GraphRun {
+    Graph graph;
+    Map<String, MSTResult> results = new LinkedHashMap<>();
+    Map<String, Long> nanos = new LinkedHashMap<>();
+
+    public GraphRun(Graph graph) {
+        this.graph = graph;
+    }
+
+    public Graph getGraph() { return graph; }
+    public Map<String, MSTResult> getResults() { return results; }
+    public MSTResult getResult(String algorithm) { return results.get(algorithm); }
+    public long getNanos(String algorithm) { return nanos.getOrDefault(algorithm, 0L); }
+
+    void put(String algorithm, MSTResult result, long elapsedNanos) {
+        results.put(algorithm, result);
+        nanos.put(algorithm, elapsedNanos);
+    }
+
+    // running sums per algorithm, so a batch summary does not have to keep every run until the end
+    static class Totals {
+        final String algorithm;
+        int graphs;
+        int connected;
+        long cost;
+        long timeMs;
+        long operations;
+        final Map<String, Integer> engines = new TreeMap<>();
+
+        Totals(String algorithm) {
+            this.algorithm = algorithm;
+        }
+
+        void add(MSTResult result) {
+            graphs++;
+            if (result.isConnected()) {
+                connected++;
+            }
+            cost += result.getTotalWeight();
+            timeMs += result.getExecutionTimeMs();
+            operations += result.getOperations();
+            engines.merge(result.getPlan() != null ? result.getPlan().getEngine() : algorithm, 1, Integer::sum);
+        }
+    }
+
+    public static Map<String, Totals> totals(Collection<String> algorithms) {
+        Map<String, Totals> totals = new LinkedHashMap<>();
+        for (String algorithm : algorithms) {
+            totals.put(algorithm, new Totals(algorithm));
+        }
+        return totals;
+    }
+
+    public void addTo(Map<String, Totals> totals) {
+        for (Map.Entry<String, MSTResult> result : results.entrySet()) {
+            totals.get(result.getKey()).add(result.getValue());
+        }
+    }
+}
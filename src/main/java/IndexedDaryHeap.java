@@ -0,0 +1,103 @@
+import java.util.*;
+
+class IndexedDaryHeap {
+    private final int arity;
+    private final int[] heap;
+    private final int[] position;
+    private final int[] keys;
+    private int size;
+
+    public IndexedDaryHeap(int capacity, int arity) {
+        if (arity < 2) {
+            throw new IllegalArgumentException("Heap arity must be at least 2: " + arity);
+        }
+        this.arity = arity;
+        this.heap = new int[capacity];
+        this.position = new int[capacity];
+        this.keys = new int[capacity];
+        Arrays.fill(position, -1);
+    }
+
+    public boolean isEmpty() { return size == 0; }
+    public int size() { return size; }
+    public boolean contains(int item) { return position[item] >= 0; }
+    public int keyOf(int item) { return keys[item]; }
+    public int peekKey() { return keys[heap[0]]; }
+
+    public void insert(int item, int key) {
+        if (position[item] >= 0) {
+            throw new IllegalStateException("Item already in heap: " + item);
+        }
+        keys[item] = key;
+        position[item] = size;
+        heap[size] = item;
+        siftUp(size++);
+    }
+
+    public void decreaseKey(int item, int key) {
+        if (key > keys[item]) {
+            throw new IllegalArgumentException("New key " + key + " is greater than current key " + keys[item]);
+        }
+        keys[item] = key;
+        siftUp(position[item]);
+    }
+
+    public int pollMin() {
+        int min = heap[0];
+        position[min] = -1;
+        int last = heap[--size];
+        if (size > 0) {
+            heap[0] = last;
+            position[last] = 0;
+            siftDown(0);
+        }
+        return min;
+    }
+
+    private boolean less(int a, int b) {
+        int ka = keys[a];
+        int kb = keys[b];
+        return ka < kb || (ka == kb && a < b);
+    }
+
+    private void siftUp(int i) {
+        int item = heap[i];
+        while (i > 0) {
+            int parent = (i - 1) / arity;
+            int parentItem = heap[parent];
+            if (!less(item, parentItem)) {
+                break;
+            }
+            heap[i] = parentItem;
+            position[parentItem] = i;
+            i = parent;
+        }
+        heap[i] = item;
+        position[item] = i;
+    }
+
+    private void siftDown(int i) {
+        int item = heap[i];
+        while (true) {
+            int first = i * arity + 1;
+            if (first >= size) {
+                break;
+            }
+            int last = Math.min(first + arity, size);
+            int best = first;
+            for (int c = first + 1; c < last; c++) {
+                if (less(heap[c], heap[best])) {
+                    best = c;
+                }
+            }
+            if (!less(heap[best], item)) {
+                break;
+            }
+            heap[i] = heap[best];
+            position[heap[i]] = i;
+            i = best;
+        }
+        heap[i] = item;
+        position[item] = i;
+    }
+}
@@ -22,8 +22,13 @@ public class JSONProcessor {
 
                 int id = graphObj.getInt("id");
 
-                List<String> nodes = new ArrayList<>();
                 JSONArray nodesArray = graphObj.getJSONArray("nodes");
+                if (nodesArray.length() > 0 && nodesArray.get(0) instanceof JSONObject) {
+                    graphs.add(parsePointGraph(id, nodesArray, graphObj.optJSONArray("edges")));
+                    continue;
+                }
+
+                List<String> nodes = new ArrayList<>();
                 for (int j = 0; j < nodesArray.length(); j++) {
                     nodes.add(nodesArray.getString(j));
                 }
@@ -47,55 +52,45 @@ public class JSONProcessor {
         return graphs;
     }
 
-    public static void writeResultsToFile(List<Graph> graphs, MSTResult[] primResults,
-                                        MSTResult[] kruskalResults, String filename) throws IOException {
-        JSONObject outputJson = new JSONObject();
-        JSONArray resultsArray = new JSONArray();
-
-        for (int i = 0; i < graphs.size(); i++) {
-            Graph graph = graphs.get(i);
-            MSTResult prim = primResults[i];
-            MSTResult kruskal = kruskalResults[i];
-
-            JSONObject resultObj = new JSONObject();
-            resultObj.put("graph_id", graph.getId());
-
-            JSONObject inputStats = new JSONObject();
-            inputStats.put("vertices", graph.getVertexCount());
-            inputStats.put("edges", graph.getEdgeCount());
-            resultObj.put("input_stats", inputStats);
-
-            resultObj.put("prim", createAlgorithmResult(prim));
-
-            resultObj.put("kruskal", createAlgorithmResult(kruskal));
-
-            resultsArray.put(resultObj);
+    private static Graph parsePointGraph(int id, JSONArray nodesArray, JSONArray edgesArray) {
+        CompactGraph.Builder builder = new CompactGraph.Builder();
+        for (int j = 0; j < nodesArray.length(); j++) {
+            JSONObject nodeObj = nodesArray.getJSONObject(j);
+            builder.addVertex(nodeObj.getString("id"), nodeObj.getDouble("x"), nodeObj.getDouble("y"));
         }
+        if (edgesArray != null) {
+            for (int j = 0; j < edgesArray.length(); j++) {
+                JSONObject edgeObj = edgesArray.getJSONObject(j);
+                builder.addEdge(edgeObj.getString("from"), edgeObj.getString("to"), edgeObj.getInt("weight"));
+            }
+        }
+        return new Graph(id, builder.build());
+    }
 
-        outputJson.put("results", resultsArray);
-
-        Files.write(Paths.get(filename), outputJson.toString(2).getBytes());
+    public static void writeResultsToFile(List<Graph> graphs, MSTResult[] primResults,
+                                        MSTResult[] kruskalResults, String filename) throws IOException {
+        Map<String, MSTResult[]> results = new LinkedHashMap<>();
+        results.put("prim", primResults);
+        results.put("kruskal", kruskalResults);
+        writeResultsToFile(graphs, results, filename);
     }
 
-    private static JSONObject createAlgorithmResult(MSTResult result) {
-        JSONObject algoResult = new JSONObject();
+    public static void writeResultsToFile(List<Graph> graphs, Map<String, MSTResult[]> results,
+                                        String filename) throws IOException {
+        writeResultsToFile(graphs, results, null, filename);
+    }
 
-        JSONArray edgesArray = new JSONArray();
-        for (Edge edge : result.getMstEdges()) {
-            JSONObject edgeObj = new JSONObject();
-            edgeObj.put("from", edge.getFrom());
-            edgeObj.put("to", edge.getTo());
-            edgeObj.put("weight", edge.getWeight());
-            edgesArray.put(edgeObj);
+    public static void writeResultsToFile(List<Graph> graphs, Map<String, MSTResult[]> results,
+                                        List<SensitivityReport> sensitivity, String filename) throws IOException {
+        try (ResultWriter writer = ResultWriter.open(filename, ResultWriter.Format.PRETTY, false)) {
+            for (int i = 0; i < graphs.size(); i++) {
+                Map<String, MSTResult> row = new LinkedHashMap<>();
+                for (Map.Entry<String, MSTResult[]> entry : results.entrySet()) {
+                    row.put(entry.getKey(), entry.getValue()[i]);
+                }
+                writer.write(graphs.get(i), row, sensitivity == null ? null : sensitivity.get(i));
+            }
         }
-
-        algoResult.put("mst_edges", edgesArray);
-        algoResult.put("total_cost", result.getTotalWeight());
-        algoResult.put("operations_count", result.getOperations());
-        algoResult.put("execution_time_ms", result.getExecutionTimeMs());
-        algoResult.put("connected", result.isConnected());
-        
-        return algoResult;
     }
 
     public static void createSampleInputFile(String filename) throws IOException {
@@ -0,0 +1,204 @@
+import java.util.*;
+
+class LinkCutTree {
+    private static final int NIL = 0;
+
+    private int[] left;
+    private int[] right;
+    private int[] parent;
+    private boolean[] reversed;
+    private int[] value;
+    private int[] maxNode;
+    private int[] stack;
+
+    public LinkCutTree(int capacity) {
+        int size = capacity + 1;
+        left = new int[size];
+        right = new int[size];
+        parent = new int[size];
+        reversed = new boolean[size];
+        value = new int[size];
+        maxNode = new int[size];
+        stack = new int[size];
+        value[NIL] = Integer.MIN_VALUE;
+        for (int x = 1; x < size; x++) {
+            value[x] = Integer.MIN_VALUE;
+            maxNode[x] = x;
+        }
+    }
+
+    public int capacity() { return left.length - 1; }
+
+    public void ensureCapacity(int capacity) {
+        int size = capacity + 1;
+        if (size <= left.length) {
+            return;
+        }
+        int oldSize = left.length;
+        size = Math.max(size, oldSize + (oldSize >> 1));
+        left = Arrays.copyOf(left, size);
+        right = Arrays.copyOf(right, size);
+        parent = Arrays.copyOf(parent, size);
+        reversed = Arrays.copyOf(reversed, size);
+        value = Arrays.copyOf(value, size);
+        maxNode = Arrays.copyOf(maxNode, size);
+        stack = new int[size];
+        for (int x = oldSize; x < size; x++) {
+            value[x] = Integer.MIN_VALUE;
+            maxNode[x] = x;
+        }
+    }
+
+    public int value(int x) { return value[x + 1]; }
+
+    public void setValue(int x, int newValue) {
+        int node = x + 1;
+        access(node);
+        splay(node);
+        value[node] = newValue;
+        update(node);
+    }
+
+    public void link(int x, int y) {
+        int a = x + 1;
+        makeRoot(a);
+        parent[a] = y + 1;
+    }
+
+    public void cut(int x, int y) {
+        int a = x + 1;
+        int b = y + 1;
+        makeRoot(a);
+        access(b);
+        splay(b);
+        if (left[b] != a || right[a] != NIL) {
+            throw new IllegalStateException("Nodes " + x + " and " + y + " are not adjacent");
+        }
+        left[b] = NIL;
+        parent[a] = NIL;
+        update(b);
+    }
+
+    public boolean connected(int x, int y) {
+        return x == y || findRoot(x + 1) == findRoot(y + 1);
+    }
+
+    public int pathMax(int x, int y) {
+        int a = x + 1;
+        int b = y + 1;
+        makeRoot(a);
+        access(b);
+        splay(b);
+        return maxNode[b] - 1;
+    }
+
+    private boolean isSplayRoot(int x) {
+        int p = parent[x];
+        return p == NIL || (left[p] != x && right[p] != x);
+    }
+
+    private void update(int x) {
+        int best = x;
+        int l = left[x];
+        int r = right[x];
+        if (l != NIL && value[maxNode[l]] > value[best]) {
+            best = maxNode[l];
+        }
+        if (r != NIL && value[maxNode[r]] > value[best]) {
+            best = maxNode[r];
+        }
+        maxNode[x] = best;
+    }
+
+    private void push(int x) {
+        if (reversed[x]) {
+            int l = left[x];
+            left[x] = right[x];
+            right[x] = l;
+            if (left[x] != NIL) {
+                reversed[left[x]] ^= true;
+            }
+            if (right[x] != NIL) {
+                reversed[right[x]] ^= true;
+            }
+            reversed[x] = false;
+        }
+    }
+
+    private void rotate(int x) {
+        int p = parent[x];
+        int g = parent[p];
+        if (!isSplayRoot(p)) {
+            if (left[g] == p) {
+                left[g] = x;
+            } else {
+                right[g] = x;
+            }
+        }
+        parent[x] = g;
+        if (left[p] == x) {
+            left[p] = right[x];
+            if (right[x] != NIL) {
+                parent[right[x]] = p;
+            }
+            right[x] = p;
+        } else {
+            right[p] = left[x];
+            if (left[x] != NIL) {
+                parent[left[x]] = p;
+            }
+            left[x] = p;
+        }
+        parent[p] = x;
+        update(p);
+        update(x);
+    }
+
+    private void splay(int x) {
+        int top = 0;
+        stack[top++] = x;
+        for (int y = x; !isSplayRoot(y); y = parent[y]) {
+            stack[top++] = parent[y];
+        }
+        while (top > 0) {
+            push(stack[--top]);
+        }
+        while (!isSplayRoot(x)) {
+            int p = parent[x];
+            if (!isSplayRoot(p)) {
+                int g = parent[p];
+                rotate((left[g] == p) == (left[p] == x) ? p : x);
+            }
+            rotate(x);
+        }
+    }
+
+    private void access(int x) {
+        int last = NIL;
+        for (int y = x; y != NIL; y = parent[y]) {
+            splay(y);
+            right[y] = last;
+            update(y);
+            last = y;
+        }
+        splay(x);
+    }
+
+    private void makeRoot(int x) {
+        access(x);
+        reversed[x] ^= true;
+        push(x);
+    }
+
+    private int findRoot(int x) {
+        access(x);
+        int root = x;
+        push(root);
+        while (left[root] != NIL) {
+            root = left[root];
+            push(root);
+        }
+        splay(root);
+        return root;
+    }
+}
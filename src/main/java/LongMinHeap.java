@@ -0,0 +1,56 @@
+import java.util.*;
+
+class LongMinHeap {
+    private long[] heap;
+    private int size;
+
+    public LongMinHeap(int capacity) {
+        heap = new long[Math.max(capacity, 1)];
+    }
+
+    public void push(long key) {
+        if (size == heap.length) {
+            heap = Arrays.copyOf(heap, heap.length * 2);
+        }
+        int i = size++;
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (heap[parent] <= key) {
+                break;
+            }
+            heap[i] = heap[parent];
+            i = parent;
+        }
+        heap[i] = key;
+    }
+
+    public long pop() {
+        long top = heap[0];
+        long last = heap[--size];
+        int i = 0;
+        int half = size >>> 1;
+        while (i < half) {
+            int child = 2 * i + 1;
+            if (child + 1 < size && heap[child + 1] < heap[child]) {
+                child++;
+            }
+            if (last <= heap[child]) {
+                break;
+            }
+            heap[i] = heap[child];
+            i = child;
+        }
+        heap[i] = last;
+        return top;
+    }
+
+    public boolean isEmpty() { return size == 0; }
+    public int size() { return size; }
+
+    public static long pack(int weight, int value) {
+        return ((long) weight << 32) | (value & 0xFFFFFFFFL);
+    }
+
+    public static int weightOf(long key) { return (int) (key >> 32); }
+    public static int valueOf(long key) { return (int) key; }
+}
@@ -1,95 +1,334 @@
+import java.nio.file.*;
 import java.util.*;
 
 public class MSTAlgorithm {
 
     public static MSTResult primMST(Graph graph) {
         long startTime = System.nanoTime();
-        int operationsCount = 0;
+        PhaseMetrics metrics = Metrics.start("prim");
+        CompactGraph g = graph.getCompact();
+        int n = g.vertexCount();
 
-        if (graph.getVertices().isEmpty()) {
-            long executionTime = (System.nanoTime() - startTime) / 1_000_000;
-            return new MSTResult(new ArrayList<>(), 0, operationsCount, executionTime, true);
+        if (n == 0) {
+            return MSTResult.of(new ArrayList<>(), 0, metrics, startTime, true);
         }
 
-        List<Edge> mstEdges = new ArrayList<>();
+        long heapStart = Metrics.now();
+        long pushes = 0, pops = 0, stalePops = 0, scanned = 0;
+        int[] parent = new int[n];
+        int[] parentWeight = new int[n];
+        int[] order = new int[n];
         int totalWeight = 0;
-        Set<String> visited = new HashSet<>();
-        PriorityQueue<Edge> minHeap = new PriorityQueue<>();
+        boolean[] visited = new boolean[n];
+        int visitedCount = 0;
+        LongMinHeap minHeap = new LongMinHeap(n);
 
-        String startVertex = graph.getVertices().get(0);
-        visited.add(startVertex);
-        operationsCount++;
+        visited[0] = true;
+        parent[0] = -1;
+        visitedCount++;
 
-        minHeap.addAll(graph.getAdjacencyList().get(startVertex));
-        operationsCount += graph.getAdjacencyList().get(startVertex).size();
+        for (int k = g.offset(0); k < g.offset(1); k++) {
+            minHeap.push(LongMinHeap.pack(g.targetWeight(k), k));
+        }
+        if (Metrics.ENABLED) {
+            pushes += minHeap.size();
+            scanned += minHeap.size();
+        }
 
-        while (!minHeap.isEmpty() && visited.size() < graph.getVertexCount()) {
-            Edge currentEdge = minHeap.poll();
-            operationsCount++;
+        int treeSize = 0;
+        while (!minHeap.isEmpty() && visitedCount < n) {
+            long key = minHeap.pop();
+            if (Metrics.ENABLED) {
+                pops++;
+            }
 
-            String currentVertex = currentEdge.getTo();
+            int slot = LongMinHeap.valueOf(key);
+            int currentVertex = g.target(slot);
 
-            if (visited.contains(currentVertex)) {
+            if (visited[currentVertex]) {
+                if (Metrics.ENABLED) {
+                    stalePops++;
+                }
                 continue;
             }
 
-            visited.add(currentVertex);
-            mstEdges.add(currentEdge);
-            totalWeight += currentEdge.getWeight();
-            operationsCount += 3;
+            int e = g.targetEdge(slot);
+            visited[currentVertex] = true;
+            visitedCount++;
+            parent[currentVertex] = g.from(e) == currentVertex ? g.to(e) : g.from(e);
+            parentWeight[currentVertex] = g.targetWeight(slot);
+            order[treeSize++] = currentVertex;
+            totalWeight += g.targetWeight(slot);
 
-            for (Edge edge : graph.getAdjacencyList().get(currentVertex)) {
-                if (!visited.contains(edge.getTo())) {
-                    minHeap.add(edge);
-                    operationsCount++;
+            for (int k = g.offset(currentVertex); k < g.offset(currentVertex + 1); k++) {
+                if (!visited[g.target(k)]) {
+                    minHeap.push(LongMinHeap.pack(g.targetWeight(k), k));
+                    if (Metrics.ENABLED) {
+                        pushes++;
+                    }
                 }
             }
+            if (Metrics.ENABLED) {
+                scanned += g.offset(currentVertex + 1) - g.offset(currentVertex);
+            }
         }
 
-        long executionTime = (System.nanoTime() - startTime) / 1_000_000;
-        boolean connected = visited.size() == graph.getVertexCount();
-        return new MSTResult(mstEdges, totalWeight, operationsCount, executionTime, connected);
+        long assemblyStart = Metrics.now();
+        List<Edge> mstEdges = new ArrayList<>(treeSize);
+        for (int i = 0; i < treeSize; i++) {
+            int v = order[i];
+            mstEdges.add(new Edge(g.name(parent[v]), g.name(v), parentWeight[v]));
+        }
+
+        if (Metrics.ENABLED) {
+            metrics.addPhase(PhaseMetrics.Phase.ADJACENCY_BUILD, g.adjacencyNanos());
+            metrics.addPhase(PhaseMetrics.Phase.HEAP, assemblyStart - heapStart);
+            metrics.phase(PhaseMetrics.Phase.RESULT_ASSEMBLY, assemblyStart);
+            metrics.count(PhaseMetrics.Counter.EDGES_SCANNED, scanned);
+            metrics.count(PhaseMetrics.Counter.HEAP_PUSHES, pushes);
+            metrics.count(PhaseMetrics.Counter.HEAP_POPS, pops);
+            metrics.count(PhaseMetrics.Counter.STALE_POPS, stalePops);
+        }
+        boolean connected = visitedCount == n;
+        return MSTResult.of(mstEdges, totalWeight, metrics, startTime, connected);
     }
 
-    public static MSTResult kruskalMST(Graph graph) {
+    public static final int EAGER_PRIM_HEAP_ARITY = 4;
+
+    public static MSTResult primMST(Graph graph, boolean eager) {
+        return eager ? primEagerMST(graph) : primMST(graph);
+    }
+
+    public static MSTResult primEagerMST(Graph graph) {
         long startTime = System.nanoTime();
-        int operationsCount = 0;
+        PhaseMetrics metrics = Metrics.start("prim_eager");
+        CompactGraph g = graph.getCompact();
+        int n = g.vertexCount();
+
+        if (n == 0) {
+            return MSTResult.of(new ArrayList<>(), 0, metrics, startTime, true);
+        }
 
-        List<Edge> mstEdges = new ArrayList<>();
+        long heapStart = Metrics.now();
+        long pushes = 0, pops = 0, decreaseKeys = 0, scanned = 0;
+        int[] parent = new int[n];
+        int[] parentWeight = new int[n];
+        int[] order = new int[n];
+        boolean[] visited = new boolean[n];
+        int visitedCount = 0;
         int totalWeight = 0;
+        IndexedDaryHeap heap = new IndexedDaryHeap(n, EAGER_PRIM_HEAP_ARITY);
+
+        parent[0] = -1;
+        heap.insert(0, 0);
+        if (Metrics.ENABLED) {
+            pushes++;
+        }
+
+        while (!heap.isEmpty()) {
+            int weight = heap.peekKey();
+            int u = heap.pollMin();
+            visited[u] = true;
+            order[visitedCount++] = u;
+            if (Metrics.ENABLED) {
+                pops++;
+                scanned += g.offset(u + 1) - g.offset(u);
+            }
+
+            if (parent[u] >= 0) {
+                parentWeight[u] = weight;
+                totalWeight += weight;
+            }
+
+            for (int k = g.offset(u); k < g.offset(u + 1); k++) {
+                int v = g.target(k);
+                if (visited[v]) {
+                    continue;
+                }
+                int w = g.targetWeight(k);
+                if (!heap.contains(v)) {
+                    parent[v] = u;
+                    heap.insert(v, w);
+                    if (Metrics.ENABLED) {
+                        pushes++;
+                    }
+                } else if (w < heap.keyOf(v)) {
+                    parent[v] = u;
+                    heap.decreaseKey(v, w);
+                    if (Metrics.ENABLED) {
+                        decreaseKeys++;
+                    }
+                }
+            }
+        }
+
+        long assemblyStart = Metrics.now();
+        List<Edge> mstEdges = new ArrayList<>(Math.max(visitedCount - 1, 0));
+        for (int i = 1; i < visitedCount; i++) {
+            int v = order[i];
+            mstEdges.add(new Edge(g.name(parent[v]), g.name(v), parentWeight[v]));
+        }
+
+        if (Metrics.ENABLED) {
+            metrics.addPhase(PhaseMetrics.Phase.ADJACENCY_BUILD, g.adjacencyNanos());
+            metrics.addPhase(PhaseMetrics.Phase.HEAP, assemblyStart - heapStart);
+            metrics.phase(PhaseMetrics.Phase.RESULT_ASSEMBLY, assemblyStart);
+            metrics.count(PhaseMetrics.Counter.EDGES_SCANNED, scanned);
+            metrics.count(PhaseMetrics.Counter.HEAP_PUSHES, pushes);
+            metrics.count(PhaseMetrics.Counter.HEAP_POPS, pops);
+            metrics.count(PhaseMetrics.Counter.DECREASE_KEYS, decreaseKeys);
+        }
+        boolean connected = visitedCount == n;
+        return MSTResult.of(mstEdges, totalWeight, metrics, startTime, connected);
+    }
+
+    public static MSTResult primDenseMST(Graph graph) {
+        long startTime = System.nanoTime();
+        PhaseMetrics metrics = Metrics.start("prim_dense");
+        CompactGraph g = graph.getCompact();
+        int n = g.vertexCount();
+
+        if (n == 0) {
+            return MSTResult.of(new ArrayList<>(), 0, metrics, startTime, true);
+        }
 
-        List<Edge> sortedEdges = new ArrayList<>(graph.getEdges());
-        Collections.sort(sortedEdges);
-        operationsCount += sortedEdges.size() * (int)(Math.log(sortedEdges.size()) / Math.log(2));
+        long scanStart = Metrics.now();
+        long scanned = 0, decreaseKeys = 0;
+        int[] parent = new int[n];
+        int[] parentWeight = new int[n];
+        int[] order = new int[n];
+        int visitedCount = 0;
+        int totalWeight = 0;
 
-        Map<String, Integer> vertexToIndex = new HashMap<>();
-        for (int i = 0; i < graph.getVertices().size(); i++) {
-            vertexToIndex.put(graph.getVertices().get(i), i);
-            operationsCount++;
+        // unvisited vertices live in a compact prefix with their keys alongside,
+        // so picking the next vertex is a linear scan over contiguous memory
+        int[] remaining = new int[n];
+        long[] remainingKey = new long[n];
+        int[] position = new int[n];
+        for (int v = 0; v < n; v++) {
+            remaining[v] = v;
+            remainingKey[v] = Long.MAX_VALUE;
+            position[v] = v;
         }
+        int remainingCount = n;
+        parent[0] = -1;
+        int pick = 0;
 
-        DSU dsu = new DSU(graph.getVertexCount());
+        while (true) {
+            int u = remaining[pick];
+            long key = remainingKey[pick];
+            remainingCount--;
+            remaining[pick] = remaining[remainingCount];
+            remainingKey[pick] = remainingKey[remainingCount];
+            position[remaining[pick]] = pick;
+            position[u] = -1;
 
-        for (Edge edge : sortedEdges) {
-            int u = vertexToIndex.get(edge.getFrom());
-            int v = vertexToIndex.get(edge.getTo());
+            order[visitedCount++] = u;
+            if (parent[u] >= 0) {
+                parentWeight[u] = (int) key;
+                totalWeight += (int) key;
+            }
 
-            if (dsu.union(u, v)) {
-                mstEdges.add(edge);
-                totalWeight += edge.getWeight();
-                operationsCount += 2;
+            for (int k = g.offset(u); k < g.offset(u + 1); k++) {
+                int p = position[g.target(k)];
+                int w = g.targetWeight(k);
+                if (p >= 0 && w < remainingKey[p]) {
+                    remainingKey[p] = w;
+                    parent[g.target(k)] = u;
+                    if (Metrics.ENABLED) {
+                        decreaseKeys++;
+                    }
+                }
+            }
+            if (Metrics.ENABLED) {
+                scanned += g.offset(u + 1) - g.offset(u) + remainingCount;
             }
-            operationsCount++;
 
-            if (mstEdges.size() == graph.getVertexCount() - 1) {
+            pick = -1;
+            long best = Long.MAX_VALUE;
+            for (int i = 0; i < remainingCount; i++) {
+                if (remainingKey[i] < best) {
+                    best = remainingKey[i];
+                    pick = i;
+                }
+            }
+            if (pick < 0) {
                 break;
             }
         }
 
-        operationsCount += dsu.getOperationsCount();
-        long executionTime = (System.nanoTime() - startTime) / 1_000_000;
-        boolean connected = graph.getVertexCount() == 0 || mstEdges.size() == graph.getVertexCount() - 1;
-        return new MSTResult(mstEdges, totalWeight, operationsCount, executionTime, connected);
+        long assemblyStart = Metrics.now();
+        List<Edge> mstEdges = new ArrayList<>(Math.max(visitedCount - 1, 0));
+        for (int i = 1; i < visitedCount; i++) {
+            int v = order[i];
+            mstEdges.add(new Edge(g.name(parent[v]), g.name(v), parentWeight[v]));
+        }
+
+        if (Metrics.ENABLED) {
+            metrics.addPhase(PhaseMetrics.Phase.ADJACENCY_BUILD, g.adjacencyNanos());
+            metrics.addPhase(PhaseMetrics.Phase.HEAP, assemblyStart - scanStart);
+            metrics.phase(PhaseMetrics.Phase.RESULT_ASSEMBLY, assemblyStart);
+            metrics.count(PhaseMetrics.Counter.EDGES_SCANNED, scanned);
+            metrics.count(PhaseMetrics.Counter.DECREASE_KEYS, decreaseKeys);
+        }
+        boolean connected = visitedCount == n;
+        return MSTResult.of(mstEdges, totalWeight, metrics, startTime, connected);
+    }
+
+    public static MSTResult kruskalMST(Graph graph) {
+        long startTime = System.nanoTime();
+        PhaseMetrics metrics = Metrics.start("kruskal");
+        CompactGraph g = graph.getCompact();
+        int n = g.vertexCount();
+
+        long sortStart = Metrics.now();
+        long[] sortedEdges = EdgeSorter.sortedKeys(g);
+
+        long unionStart = Metrics.now();
+        int[] treeEdges = new int[Math.max(n - 1, 0)];
+        CompactDSU dsu = new CompactDSU(n);
+        int treeSize = dsu.unionAll(sortedEdges, g, treeEdges);
+        int totalWeight = 0;
+        for (int i = 0; i < treeSize; i++) {
+            totalWeight += g.weight(treeEdges[i]);
+        }
+
+        long assemblyStart = Metrics.now();
+        List<Edge> mstEdges = new ArrayList<>(treeSize);
+        for (int i = 0; i < treeSize; i++) {
+            mstEdges.add(g.toEdge(treeEdges[i]));
+        }
+
+        if (Metrics.ENABLED) {
+            metrics.addPhase(PhaseMetrics.Phase.SORT, unionStart - sortStart);
+            metrics.addPhase(PhaseMetrics.Phase.UNION_FIND, assemblyStart - unionStart);
+            metrics.phase(PhaseMetrics.Phase.RESULT_ASSEMBLY, assemblyStart);
+            // unionAll runs two finds per scanned edge
+            metrics.count(PhaseMetrics.Counter.EDGES_SCANNED, dsu.getFinds() / 2);
+            metrics.countDsu(dsu);
+        }
+        boolean connected = n == 0 || treeSize == n - 1;
+        return MSTResult.of(mstEdges, totalWeight, metrics, startTime, connected);
+    }
+
+    public static MSTResult filterKruskalMST(Graph graph) {
+        return FilterKruskal.run(graph);
+    }
+
+    public static MSTResult externalKruskalMST(Graph graph, long memoryBudget, Path tempDir) {
+        return ExternalKruskal.run(graph, memoryBudget, tempDir);
+    }
+
+    public static MSTResult shardedKruskalMST(Graph graph, int shards, String workerHeap) {
+        return ShardedMST.run(graph, shards, workerHeap);
+    }
+
+    public static MSTResult spanningForestMST(Graph graph) {
+        return SpanningForest.run(graph);
+    }
+
+    public static MSTResult boruvkaMST(Graph graph) {
+        return BoruvkaMST.run(graph);
     }
 
     public static void compareAlgorithms(Graph graph) {
@@ -97,17 +336,23 @@ public class MSTAlgorithm {
         System.out.println("Vertices: " + graph.getVertexCount() + ", Edges: " + graph.getEdgeCount());
 
         MSTResult primResult = primMST(graph);
+        MSTResult eagerPrimResult = primEagerMST(graph);
         MSTResult kruskalResult = kruskalMST(graph);
 
         System.out.println("Prim - Cost: " + primResult.getTotalWeight() +
                          ", Time: " + primResult.getExecutionTimeMs() + "ms" +
                          ", Operations: " + primResult.getOperations());
 
+        System.out.println("Prim (eager) - Cost: " + eagerPrimResult.getTotalWeight() +
+                         ", Time: " + eagerPrimResult.getExecutionTimeMs() + "ms" +
+                         ", Operations: " + eagerPrimResult.getOperations());
+
         System.out.println("Kruskal - Cost: " + kruskalResult.getTotalWeight() +
                          ", Time: " + kruskalResult.getExecutionTimeMs() + "ms" +
                          ", Operations: " + kruskalResult.getOperations());
 
-        if (primResult.getTotalWeight() == kruskalResult.getTotalWeight()) {
+        if (primResult.getTotalWeight() == kruskalResult.getTotalWeight()
+                && eagerPrimResult.getTotalWeight() == kruskalResult.getTotalWeight()) {
             System.out.println("✓ MST costs are identical");
         } else {
             System.out.println("✗ ERROR: MST costs differ!");
@@ -0,0 +1,238 @@
+import java.io.*;
+import java.nio.file.*;
+import java.util.*;
+import java.util.function.*;
+
+public class MSTPlanner {
+    static final String DEFAULT_CALIBRATION_FILE = "planner.properties";
+    static final String PRIM_DENSE = "prim_dense";
+    static final String PRIM_HEAP = "prim_eager";
+    static final String KRUSKAL = "kruskal";
+
+    private static final int CALIBRATION_WARMUPS = 3;
+    private static final int CALIBRATION_RUNS = 5;
+
+    // nanoseconds per unit of work: V^2 + E for dense Prim, E + V log2 V for heap Prim,
+    // E * (radix passes + 1) for Kruskal; defaults were measured on a single-core reference box
+    double densePrimNanos = 7.0;
+    double heapPrimNanos = 20.0;
+    double kruskalNanos = 13.0;
+    String source = "defaults";
+
+    public static MSTPlanner load(String filename) throws IOException {
+        MSTPlanner planner = new MSTPlanner();
+        Path path = Paths.get(filename);
+        if (!Files.exists(path)) {
+            return planner;
+        }
+        Properties properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(path)) {
+            properties.load(reader);
+        }
+        planner.densePrimNanos = parse(properties, PRIM_DENSE, planner.densePrimNanos);
+        planner.heapPrimNanos = parse(properties, PRIM_HEAP, planner.heapPrimNanos);
+        planner.kruskalNanos = parse(properties, KRUSKAL, planner.kruskalNanos);
+        planner.source = filename;
+        return planner;
+    }
+
+    private static double parse(Properties properties, String key, double defaultValue) {
+        String value = properties.getProperty(key + ".nanos_per_unit");
+        try {
+            return value == null ? defaultValue : Double.parseDouble(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid planner calibration value for " + key + ": " + value);
+        }
+    }
+
+    public void save(String filename) throws IOException {
+        Properties properties = new Properties();
+        properties.setProperty(PRIM_DENSE + ".nanos_per_unit", String.valueOf(densePrimNanos));
+        properties.setProperty(PRIM_HEAP + ".nanos_per_unit", String.valueOf(heapPrimNanos));
+        properties.setProperty(KRUSKAL + ".nanos_per_unit", String.valueOf(kruskalNanos));
+        try (Writer writer = Files.newBufferedWriter(Paths.get(filename))) {
+            properties.store(writer, "MST planner calibration");
+        }
+    }
+
+    public static MSTPlanner calibrate() {
+        Random random = new Random(1);
+        Graph dense = syntheticGraph(800, 800 * 799 / 2, 1_000_000, random);
+        Graph medium = syntheticGraph(20_000, 200_000, 1_000_000, random);
+        Graph sparse = syntheticGraph(200_000, 400_000, 1_000, random);
+
+        MSTPlanner planner = new MSTPlanner();
+        planner.densePrimNanos = measure(MSTAlgorithm::primDenseMST, dense, denseUnits(dense.getCompact()));
+        planner.heapPrimNanos = Math.min(
+                measure(MSTAlgorithm::primEagerMST, medium, heapUnits(medium.getCompact())),
+                measure(MSTAlgorithm::primEagerMST, dense, heapUnits(dense.getCompact())));
+        planner.kruskalNanos = Math.min(
+                measure(MSTAlgorithm::kruskalMST, sparse, kruskalUnits(sparse.getCompact())),
+                measure(MSTAlgorithm::kruskalMST, medium, kruskalUnits(medium.getCompact())));
+        planner.source = "calibrated";
+        return planner;
+    }
+
+    private static double measure(Function<Graph, MSTResult> engine, Graph graph, double units) {
+        for (int i = 0; i < CALIBRATION_WARMUPS; i++) {
+            engine.apply(graph);
+        }
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < CALIBRATION_RUNS; i++) {
+            long start = System.nanoTime();
+            engine.apply(graph);
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        return best / units;
+    }
+
+    private static Graph syntheticGraph(int n, int m, int maxWeight, Random random) {
+        String[] names = new String[n];
+        Map<String, Integer> nameToId = new HashMap<>(n * 2);
+        for (int v = 0; v < n; v++) {
+            names[v] = "v" + v;
+            nameToId.put(names[v], v);
+        }
+        int[] from = new int[m];
+        int[] to = new int[m];
+        int[] weight = new int[m];
+        for (int e = 0; e < m; e++) {
+            // the first n-1 edges form a random spanning tree so every engine sees a connected graph
+            from[e] = e < n - 1 ? e + 1 : random.nextInt(n);
+            to[e] = e < n - 1 ? random.nextInt(e + 1) : random.nextInt(n);
+            weight[e] = random.nextInt(maxWeight);
+        }
+        return new Graph(0, new CompactGraph(names, nameToId, from, to, weight, m));
+    }
+
+    private static double denseUnits(CompactGraph g) {
+        return (double) g.vertexCount() * g.vertexCount() + g.edgeCount();
+    }
+
+    private static double heapUnits(CompactGraph g) {
+        int n = g.vertexCount();
+        return g.edgeCount() + n * (Math.log(Math.max(n, 2)) / Math.log(2));
+    }
+
+    private static double kruskalUnits(CompactGraph g) {
+        return (double) g.edgeCount() * (radixPasses(g, minWeight(g), maxWeight(g)) + 1);
+    }
+
+    static int radixPasses(CompactGraph g, int minWeight, int maxWeight) {
+        int weightBits = 32 - Integer.numberOfLeadingZeros(minWeight ^ maxWeight);
+        int indexBits = 32 - Integer.numberOfLeadingZeros(Math.max(g.edgeCount() - 1, 0));
+        return (weightBits + 7) / 8 + (indexBits + 7) / 8;
+    }
+
+    private static int minWeight(CompactGraph g) {
+        int min = Integer.MAX_VALUE;
+        for (int e = 0; e < g.edgeCount(); e++) {
+            min = Math.min(min, g.weight(e));
+        }
+        return g.edgeCount() == 0 ? 0 : min;
+    }
+
+    private static int maxWeight(CompactGraph g) {
+        int max = Integer.MIN_VALUE;
+        for (int e = 0; e < g.edgeCount(); e++) {
+            max = Math.max(max, g.weight(e));
+        }
+        return g.edgeCount() == 0 ? 0 : max;
+    }
+
+    public MSTPlan plan(Graph graph) {
+        CompactGraph g = graph.getCompact();
+        int n = g.vertexCount();
+        int m = g.edgeCount();
+        int minWeight = minWeight(g);
+        int maxWeight = maxWeight(g);
+        int passes = radixPasses(g, minWeight, maxWeight);
+        double density = n < 2 ? 0 : 2.0 * m / ((double) n * (n - 1));
+
+        Map<String, Double> estimates = new LinkedHashMap<>();
+        estimates.put(PRIM_DENSE, densePrimNanos * denseUnits(g) / 1e6);
+        estimates.put(PRIM_HEAP, heapPrimNanos * heapUnits(g) / 1e6);
+        estimates.put(KRUSKAL, kruskalNanos * m * (passes + 1) / 1e6);
+
+        String engine = KRUSKAL;
+        for (Map.Entry<String, Double> estimate : estimates.entrySet()) {
+            if (estimate.getValue() < estimates.get(engine)) {
+                engine = estimate.getKey();
+            }
+        }
+
+        StringBuilder reason = new StringBuilder();
+        reason.append(String.format(Locale.ROOT, "V=%d, E=%d, density=%.4f, weights %d..%d (%d radix passes); estimated",
+                n, m, density, minWeight, maxWeight, passes));
+        for (Map.Entry<String, Double> estimate : estimates.entrySet()) {
+            reason.append(String.format(Locale.ROOT, " %s %.3g ms,", estimate.getKey(), estimate.getValue()));
+        }
+        reason.setLength(reason.length() - 1);
+        reason.append(" (").append(source).append(") -> ").append(engine);
+        return new MSTPlan(engine, reason.toString(), n, m, density, minWeight, maxWeight, estimates);
+    }
+
+    public MSTResult run(Graph graph) {
+        MSTPlan plan = plan(graph);
+        MSTResult result = engine(plan.getEngine()).apply(graph);
+        if (!result.isConnected() && !plan.getEngine().equals(KRUSKAL)) {
+            // Prim only spans the component of the first vertex
+            plan.fallBack(KRUSKAL, "graph is disconnected, reran kruskal for a spanning forest");
+            result = MSTAlgorithm.kruskalMST(graph);
+        }
+        result.plan = plan;
+        return result;
+    }
+
+    static Function<Graph, MSTResult> engine(String name) {
+        switch (name) {
+            case PRIM_DENSE:
+                return MSTAlgorithm::primDenseMST;
+            case PRIM_HEAP:
+                return MSTAlgorithm::primEagerMST;
+            case KRUSKAL:
+                return MSTAlgorithm::kruskalMST;
+            default:
+                throw new IllegalArgumentException("Unknown engine '" + name + "'");
+        }
+    }
+
+    public String getSource() { return source; }
+}
+
+class MSTPlan {
+    String engine;
+    String reason;
+    int vertices;
+    int edges;
+    double density;
+    int minWeight;
+    int maxWeight;
+    Map<String, Double> estimatedMs;
+
+    public MSTPlan(String engine, String reason, int vertices, int edges, double density,
+                   int minWeight, int maxWeight, Map<String, Double> estimatedMs) {
+        this.engine = engine;
+        this.reason = reason;
+        this.vertices = vertices;
+        this.edges = edges;
+        this.density = density;
+        this.minWeight = minWeight;
+        this.maxWeight = maxWeight;
+        this.estimatedMs = estimatedMs;
+    }
+
+    void fallBack(String newEngine, String why) {
+        reason = reason + "; " + why;
+        engine = newEngine;
+    }
+
+    public String getEngine() { return engine; }
+    public String getReason() { return reason; }
+    public int getVertices() { return vertices; }
+    public int getEdges() { return edges; }
+    public double getDensity() { return density; }
+    public int getMinWeight() { return minWeight; }
+    public int getMaxWeight() { return maxWeight; }
+    public Map<String, Double> getEstimatedMs() { return estimatedMs; }
+}
@@ -0,0 +1,269 @@
+import com.sun.net.httpserver.*;
+import java.io.*;
+import java.net.*;
+import java.nio.charset.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+import java.util.function.*;
+import org.json.*;
+
+public class MSTServer implements AutoCloseable {
+    static final int DEFAULT_PORT = 8080;
+    static final int DEFAULT_QUEUE = 64;
+    static final long DEFAULT_MAX_BODY = 16L << 20;
+
+    private static final int LATENCY_WINDOW = 10_000;
+
+    private final HttpServer server;
+    private final ThreadPoolExecutor workers;
+    private final ExecutorService acceptors;
+    private final Map<String, Function<Graph, MSTResult>> algorithms;
+    private final int queueLimit;
+    private final long maxBody;
+    private final long startNanos = System.nanoTime();
+
+    private final AtomicLong accepted = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong completed = new AtomicLong();
+    private final AtomicLong graphs = new AtomicLong();
+    private final long[] latencies = new long[LATENCY_WINDOW];
+    private long latencyCount;
+
+    public MSTServer(int port, int threads, int queueLimit, long maxBody,
+                     Map<String, Function<Graph, MSTResult>> algorithms) throws IOException {
+        if (threads < 1 || queueLimit < 0) {
+            throw new IllegalArgumentException("Server needs at least one worker and a non-negative queue: threads=" + threads + ", queue=" + queueLimit);
+        }
+        this.algorithms = algorithms;
+        this.queueLimit = queueLimit;
+        this.maxBody = maxBody;
+        // a full queue makes execute() throw instead of blocking, so overload turns into an immediate 503
+        BlockingQueue<Runnable> queue = queueLimit == 0 ? new SynchronousQueue<>() : new ArrayBlockingQueue<>(queueLimit);
+        this.workers = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS, queue, new ThreadPoolExecutor.AbortPolicy());
+        this.acceptors = Executors.newFixedThreadPool(Math.max(2, threads));
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        server.createContext("/mst", exchange -> submit(exchange, false));
+        server.createContext("/mst/graph", exchange -> submit(exchange, true));
+        server.createContext("/stats", this::stats);
+        server.setExecutor(acceptors);
+    }
+
+    public void start() {
+        server.start();
+    }
+
+    public InetSocketAddress getAddress() {
+        return server.getAddress();
+    }
+
+    @Override
+    public void close() {
+        server.stop(1);
+        workers.shutdown();
+        acceptors.shutdown();
+        try {
+            workers.awaitTermination(30, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void submit(HttpExchange exchange, boolean single) throws IOException {
+        long arrival = System.nanoTime();
+        String path = exchange.getRequestURI().getPath();
+        if (!path.equals(single ? "/mst/graph" : "/mst")) {
+            respond(exchange, 404, error("Unknown path " + path));
+            return;
+        }
+        if (!exchange.getRequestMethod().equals("POST")) {
+            exchange.getResponseHeaders().set("Allow", "POST");
+            respond(exchange, 405, error("Use POST"));
+            return;
+        }
+        String length = exchange.getRequestHeaders().getFirst("Content-Length");
+        if (length != null) {
+            long declared;
+            try {
+                declared = Long.parseLong(length.trim());
+            } catch (NumberFormatException e) {
+                respond(exchange, 400, error("Malformed Content-Length: " + length));
+                return;
+            }
+            if (declared > maxBody) {
+                respond(exchange, 413, error("Request body exceeds " + maxBody + " bytes"));
+                return;
+            }
+        }
+        // admission comes before the body is read: the worker reads it, so waiting jobs hold no request bytes
+        try {
+            workers.execute(() -> process(exchange, single, arrival));
+            accepted.incrementAndGet();
+        } catch (RejectedExecutionException e) {
+            rejected.incrementAndGet();
+            exchange.getResponseHeaders().set("Retry-After", "1");
+            respond(exchange, 503, error("Server overloaded: " + workers.getActiveCount() + " jobs running, " + queueLimit + " queued"));
+        }
+    }
+
+    private byte[] readBody(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] chunk = new byte[1 << 16];
+        long total = 0;
+        int read;
+        while ((read = in.read(chunk)) > 0) {
+            total += read;
+            if (total > maxBody) {
+                return null;
+            }
+            out.write(chunk, 0, read);
+        }
+        return out.toByteArray();
+    }
+
+    private void process(HttpExchange exchange, boolean single, long arrival) {
+        ResultWriter output = null;
+        // parse errors are the client's fault; anything an engine throws is ours
+        int errorStatus = 400;
+        try {
+            byte[] body;
+            try (InputStream in = exchange.getRequestBody()) {
+                body = readBody(in);
+            }
+            if (body == null) {
+                failed.incrementAndGet();
+                respondQuietly(exchange, 413, error("Request body exceeds " + maxBody + " bytes"));
+                return;
+            }
+            Reader reader = new InputStreamReader(new ByteArrayInputStream(body), StandardCharsets.UTF_8);
+            Iterator<Graph> input = single
+                    ? Collections.singletonList(StreamingGraphReader.readSingleGraph(reader)).iterator()
+                    : new StreamingGraphReader(reader);
+            long count = 0;
+            while (input.hasNext()) {
+                Graph graph = input.next();
+                errorStatus = 500;
+                GraphRun run = run(graph);
+                errorStatus = 400;
+                // the status goes out with the first finished graph, so a bad first graph still gets an error status
+                if (output == null) {
+                    output = startResponse(exchange);
+                }
+                output.write(run, null);
+                output.flush();
+                count++;
+            }
+            if (output == null) {
+                output = startResponse(exchange);
+            }
+            output.close();
+            graphs.addAndGet(count);
+            completed.incrementAndGet();
+            recordLatency(System.nanoTime() - arrival);
+        } catch (RuntimeException e) {
+            failed.incrementAndGet();
+            if (output == null) {
+                respondQuietly(exchange, errorStatus, error(e.getMessage()));
+            } else {
+                // 200 is already on the wire; dropping the connection leaves the client a truncated response
+                exchange.close();
+            }
+        } catch (IOException e) {
+            failed.incrementAndGet();
+            exchange.close();
+        }
+    }
+
+    // each graph's result is written into the chunked response as soon as it is computed
+    private static ResultWriter startResponse(HttpExchange exchange) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(200, 0);
+        return new ResultWriter(exchange.getResponseBody(), ResultWriter.Format.COMPACT);
+    }
+
+    private GraphRun run(Graph graph) {
+        GraphRun run = new GraphRun(graph);
+        for (Map.Entry<String, Function<Graph, MSTResult>> algorithm : algorithms.entrySet()) {
+            long startTime = System.nanoTime();
+            MSTResult result = algorithm.getValue().apply(graph);
+            run.put(algorithm.getKey(), result, System.nanoTime() - startTime);
+        }
+        return run;
+    }
+
+    private synchronized void recordLatency(long nanos) {
+        latencies[(int) (latencyCount++ % LATENCY_WINDOW)] = nanos;
+    }
+
+    private void stats(HttpExchange exchange) throws IOException {
+        if (!exchange.getRequestMethod().equals("GET")) {
+            exchange.getResponseHeaders().set("Allow", "GET");
+            respond(exchange, 405, error("Use GET"));
+            return;
+        }
+        long[] window;
+        synchronized (this) {
+            window = Arrays.copyOf(latencies, (int) Math.min(latencyCount, LATENCY_WINDOW));
+        }
+        Arrays.sort(window);
+        double uptime = (System.nanoTime() - startNanos) / 1e9;
+
+        JSONObject stats = new JSONObject();
+        stats.put("uptime_s", uptime);
+        stats.put("accepted", accepted.get());
+        stats.put("completed", completed.get());
+        stats.put("rejected", rejected.get());
+        stats.put("failed", failed.get());
+        stats.put("graphs", graphs.get());
+        stats.put("requests_per_s", completed.get() / uptime);
+        stats.put("graphs_per_s", graphs.get() / uptime);
+
+        JSONObject latency = new JSONObject();
+        latency.put("window", window.length);
+        latency.put("p50_ms", percentile(window, 0.50));
+        latency.put("p90_ms", percentile(window, 0.90));
+        latency.put("p99_ms", percentile(window, 0.99));
+        latency.put("p999_ms", percentile(window, 0.999));
+        latency.put("max_ms", window.length == 0 ? 0.0 : window[window.length - 1] / 1e6);
+        stats.put("latency", latency);
+
+        JSONObject pool = new JSONObject();
+        pool.put("workers", workers.getMaximumPoolSize());
+        pool.put("active", workers.getActiveCount());
+        pool.put("queued", workers.getQueue().size());
+        pool.put("queue_limit", queueLimit);
+        stats.put("pool", pool);
+        respond(exchange, 200, stats.toString(2));
+    }
+
+    // nearest-rank percentile over the most recent LATENCY_WINDOW completed requests
+    static double percentile(long[] sorted, double p) {
+        if (sorted.length == 0) {
+            return 0.0;
+        }
+        int rank = (int) Math.ceil(p * sorted.length);
+        return sorted[Math.max(rank, 1) - 1] / 1e6;
+    }
+
+    private static String error(String message) {
+        return new JSONObject().put("error", message == null ? "internal error" : message).toString();
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private static void respondQuietly(HttpExchange exchange, int status, String body) {
+        try {
+            respond(exchange, status, body);
+        } catch (IOException | RuntimeException e) {
+            exchange.close();
+        }
+    }
+}
@@ -1,52 +1,141 @@
 import java.util.*;
+import java.util.function.*;
 import java.io.*;
+import java.nio.file.*;
 
 public class Main {
     public static void main(String[] args) {
         try {
+            String metricsMode = option(args, "metrics", "on");
+            // Metrics.ENABLED is fixed from -Dmst.metrics when the class loads, so it cannot be turned off from here
+            if (metricsMode.equals("off") && Metrics.ENABLED) {
+                throw new IllegalArgumentException("--metrics=off needs the JVM started with -Dmst.metrics=off");
+            }
             System.out.println("=== Java MST Algorithms - City Road Optimization ===");
             System.out.println("Loading graphs and calculating Minimum Spanning Trees...\n");
 
-            List<Graph> graphs = JSONProcessor.readGraphsFromFile("input.json");
-            System.out.println("✓ Loaded " + graphs.size() + " graphs from input.json");
+            String primVariant = option(args, "prim", "lazy");
+            if (!primVariant.equals("lazy") && !primVariant.equals("eager")) {
+                throw new IllegalArgumentException("Unknown Prim variant '" + primVariant + "' (expected lazy or eager)");
+            }
+            boolean eagerPrim = primVariant.equals("eager");
+            String kruskalVariant = option(args, "kruskal", "classic");
+            boolean runBoruvka = Arrays.asList(args).contains("--boruvka");
+            boolean runForest = Arrays.asList(args).contains("--forest");
+            boolean runSensitivity = Arrays.asList(args).contains("--sensitivity");
+            boolean reduce = Arrays.asList(args).contains("--reduce");
+            boolean useCache = Arrays.asList(args).contains("--cache");
+            String inputFile = option(args, "input", "input.json");
+            ResultWriter.Format outputFormat = ResultWriter.format(option(args, "output-format", "pretty"));
+            boolean gzip = Arrays.asList(args).contains("--gzip");
+            String outputFile = ResultWriter.defaultFile(outputFormat, gzip);
 
-            MSTResult[] primResults = new MSTResult[graphs.size()];
-            MSTResult[] kruskalResults = new MSTResult[graphs.size()];
+            String mode = option(args, "mode", "compare");
+            boolean production = mode.equals("production");
+            boolean euclidean = mode.equals("euclidean");
+            if (!production && !euclidean && !mode.equals("compare")) {
+                throw new IllegalArgumentException("Unknown mode '" + mode + "' (expected compare, production or euclidean)");
+            }
+            String executor = option(args, "executor", "sequential");
+            if (!executor.equals("sequential") && !executor.equals("fixed") && !executor.equals("virtual")) {
+                throw new IllegalArgumentException("Unknown executor '" + executor + "' (expected sequential, fixed or virtual)");
+            }
+            if (executor.equals("virtual") && !BatchExecutor.virtualThreadsAvailable()) {
+                throw new IllegalArgumentException("--executor=virtual requires Java 21+ (running " + System.getProperty("java.version") + ")");
+            }
+            if (euclidean && (runSensitivity || reduce)) {
+                throw new IllegalArgumentException((reduce ? "--reduce" : "--sensitivity") + " is not available in euclidean mode");
+            }
 
-            System.out.println("\n=== Processing Graphs from input.json ===");
-            for (int i = 0; i < graphs.size(); i++) {
-                Graph graph = graphs.get(i);
-                System.out.println("\n--- Graph " + graph.getId() + " ---");
-                System.out.println("Vertices: " + graph.getVertexCount() + ", Edges: " + graph.getEdgeCount());
+            Map<String, Function<Graph, MSTResult>> algorithms = new LinkedHashMap<>();
+            if (production) {
+                MSTPlanner planner = createPlanner(args);
+                algorithms.put("mst", planner::run);
+            } else if (euclidean) {
+                algorithms.put("euclidean", EuclideanMST::run);
+            } else {
+                algorithms.put("prim", graph -> MSTAlgorithm.primMST(graph, eagerPrim));
+                algorithms.put("kruskal", kruskalVariant(args, kruskalVariant));
+                if (runBoruvka) {
+                    algorithms.put("boruvka", MSTAlgorithm::boruvkaMST);
+                }
+                if (runForest) {
+                    algorithms.put("forest", MSTAlgorithm::spanningForestMST);
+                }
+            }
 
-                long startTime = System.nanoTime();
-                primResults[i] = MSTAlgorithm.primMST(graph);
-                long primTime = System.nanoTime() - startTime;
+            if (reduce) {
+                algorithms.replaceAll((name, engine) -> GraphReduction.around(engine));
+            }
+            ResultCache cache = null;
+            if (useCache) {
+                cache = ResultCache.load(option(args, "cache-file", ResultCache.DEFAULT_FILE),
+                        Long.parseLong(option(args, "cache-max-edges", String.valueOf(ResultCache.DEFAULT_MAX_EDGES))));
+                ResultCache results = cache;
+                algorithms.replaceAll((name, engine) -> results.around(
+                        cacheLabel(name, eagerPrim, kruskalVariant) + (reduce ? "_reduced" : ""), engine));
+            }
 
-                startTime = System.nanoTime();
-                kruskalResults[i] = MSTAlgorithm.kruskalMST(graph);
-                long kruskalTime = System.nanoTime() - startTime;
+            if (Arrays.asList(args).contains("--serve")) {
+                if (runSensitivity) {
+                    throw new IllegalArgumentException("--sensitivity is not available with --serve");
+                }
+                serve(args, algorithms, cache);
+                return;
+            }
 
-                printAlgorithmResult("Prim", primResults[i]);
-                printAlgorithmResult("Kruskal", kruskalResults[i]);
+            Map<String, GraphRun.Totals> totals = GraphRun.totals(algorithms.keySet());
 
-                if (primResults[i].getTotalWeight() == kruskalResults[i].getTotalWeight()) {
-                    System.out.println("✓ CORRECT: Both algorithms found MST with cost " + primResults[i].getTotalWeight());
-                } else {
-                    System.out.println("✗ ERROR: MST costs differ! Prim: " + primResults[i].getTotalWeight() + ", Kruskal: " + kruskalResults[i].getTotalWeight());
+            System.out.println("\n=== Processing Graphs from " + inputFile + " ===");
+            if (euclidean) {
+                System.out.println("Euclidean mode: MST of the complete distance graph over node coordinates");
+            } else if (!production) {
+                System.out.println("Prim variant: " + (eagerPrim ? "eager (indexed " + MSTAlgorithm.EAGER_PRIM_HEAP_ARITY + "-ary heap)" : "lazy"));
+                System.out.println("Kruskal variant: " + describeKruskal(args, kruskalVariant));
+            }
+            Iterator<Graph> reader = inputFile.endsWith(".mstg")
+                    ? BinaryGraphFormat.load(inputFile).iterator()
+                    : StreamingGraphReader.open(inputFile);
+            Metrics.setSink(MetricsSink.create(metricsMode));
+            try (MetricsSink sink = Metrics.sink(); BatchExecutor batch = createBatchExecutor(args);
+                 CSVExporter.SummaryWriter summary = CSVExporter.open("results_summary.csv", algorithms.keySet(), true);
+                 ResultWriter output = ResultWriter.open(outputFile, outputFormat, gzip)) {
+                batch.run(reader, algorithms, run -> {
+                    run.addTo(totals);
+                    printGraphRun(run);
+                    publishMetrics(sink, run);
+                    SensitivityReport report = null;
+                    if (runSensitivity) {
+                        report = SensitivityAnalysis.analyze(run.getGraph(), run.getResult(production ? "mst" : "kruskal"));
+                        System.out.println("Sensitivity: " + report.getBridgeCount() + " of " + report.getTreeEdges().size()
+                                + " MST edges have no replacement");
+                    }
+                    try {
+                        output.write(run, report);
+                        summary.write(run);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException("Could not write results of graph " + run.getGraph().getId(), e);
+                    }
+                });
+            } finally {
+                if (reader instanceof Closeable) {
+                    ((Closeable) reader).close();
                 }
-
-                System.out.println("Performance comparison:");
-                System.out.println("  Prim was " + String.format("%.2f", (double)kruskalTime/primTime) + "x faster than Kruskal");
             }
+            System.out.println("\n✓ Loaded " + totals.values().iterator().next().graphs + " graphs from " + inputFile);
+            System.out.println("✓ Results saved to " + outputFile);
+            System.out.println("✓ Appended summary to results_summary.csv");
 
-            JSONProcessor.writeResultsToFile(graphs, primResults, kruskalResults, "output.json");
-            System.out.println("\n✓ Results saved to output.json");
-
-            printFinalSummary(graphs, primResults, kruskalResults);
+            if (production || euclidean) {
+                printEngineSummary(totals.values().iterator().next());
+            } else {
+                printFinalSummary(totals);
+            }
 
-            CSVExporter.writeSummary(graphs, primResults, kruskalResults, "results_summary.csv", true);
-            System.out.println("✓ Appended summary to results_summary.csv");
+            if (cache != null) {
+                cache.save();
+                System.out.println("Cache: " + cache.describe());
+            }
 
             if (args.length > 0 && Arrays.asList(args).contains("--test")) {
                 runTests();
@@ -57,10 +146,193 @@ public class Main {
         }
     }
 
+    private static MSTPlanner createPlanner(String[] args) throws IOException {
+        String calibrationFile = option(args, "planner-calibration", MSTPlanner.DEFAULT_CALIBRATION_FILE);
+        if (Arrays.asList(args).contains("--calibrate")) {
+            System.out.println("Calibrating planner...");
+            MSTPlanner planner = MSTPlanner.calibrate();
+            planner.save(calibrationFile);
+            System.out.println("✓ Planner calibration saved to " + calibrationFile);
+            return planner;
+        }
+        MSTPlanner planner = MSTPlanner.load(calibrationFile);
+        System.out.println("Production mode: planner using " + planner.getSource() + " cost model");
+        return planner;
+    }
+
+    private static Function<Graph, MSTResult> kruskalVariant(String[] args, String variant) {
+        switch (variant) {
+            case "classic":
+                return MSTAlgorithm::kruskalMST;
+            case "filter":
+                return MSTAlgorithm::filterKruskalMST;
+            case "external":
+                long memoryBudget = ExternalKruskal.parseSize(option(args, "memory-budget", "256m"));
+                Path tempDir = Paths.get(option(args, "temp-dir", System.getProperty("java.io.tmpdir")));
+                return graph -> MSTAlgorithm.externalKruskalMST(graph, memoryBudget, tempDir);
+            case "sharded":
+                int shards = Integer.parseInt(option(args, "shards", String.valueOf(ShardedMST.DEFAULT_SHARDS)));
+                String workerHeap = option(args, "shard-heap", null);
+                return graph -> MSTAlgorithm.shardedKruskalMST(graph, shards, workerHeap);
+            default:
+                throw new IllegalArgumentException("Unknown Kruskal variant '" + variant + "' (expected classic, filter, external or sharded)");
+        }
+    }
+
+    private static String cacheLabel(String algorithm, boolean eagerPrim, String kruskalVariant) {
+        switch (algorithm) {
+            case "prim":
+                return eagerPrim ? "prim_eager" : "prim_lazy";
+            case "kruskal":
+                return "kruskal_" + kruskalVariant;
+            default:
+                return algorithm;
+        }
+    }
+
+    private static String describeKruskal(String[] args, String variant) {
+        switch (variant) {
+            case "filter":
+                return "filter (parallel partitioning)";
+            case "external":
+                return "external (sorted runs of at most " + option(args, "memory-budget", "256m") + " in "
+                        + option(args, "temp-dir", System.getProperty("java.io.tmpdir")) + ")";
+            case "sharded":
+                String workerHeap = option(args, "shard-heap", null);
+                return "sharded (" + option(args, "shards", String.valueOf(ShardedMST.DEFAULT_SHARDS)) + " worker JVMs"
+                        + (workerHeap == null ? "" : " with -Xmx" + workerHeap) + ", merged over shard forests and cut edges)";
+            default:
+                return "classic";
+        }
+    }
+
+    private static BatchExecutor createBatchExecutor(String[] args) {
+        String mode = option(args, "executor", "sequential");
+        int threads = Integer.parseInt(option(args, "threads", String.valueOf(Runtime.getRuntime().availableProcessors())));
+        int maxInFlight = Integer.parseInt(option(args, "max-in-flight", String.valueOf(2 * threads)));
+        switch (mode) {
+            case "sequential":
+                return BatchExecutor.sequential();
+            case "fixed":
+                System.out.println("Batch executor: fixed pool of " + threads + " threads, " + maxInFlight + " graphs in flight");
+                return BatchExecutor.fixed(threads, maxInFlight);
+            case "virtual":
+                BatchExecutor batch = BatchExecutor.virtualThreads(maxInFlight);
+                System.out.println("Batch executor: virtual threads, " + maxInFlight + " graphs in flight");
+                return batch;
+            default:
+                throw new IllegalArgumentException("Unknown executor '" + mode + "' (expected sequential, fixed or virtual)");
+        }
+    }
+
+    private static void serve(String[] args, Map<String, Function<Graph, MSTResult>> algorithms, ResultCache cache) throws IOException {
+        int port = Integer.parseInt(option(args, "port", String.valueOf(MSTServer.DEFAULT_PORT)));
+        int threads = Integer.parseInt(option(args, "threads", String.valueOf(Runtime.getRuntime().availableProcessors())));
+        int queue = Integer.parseInt(option(args, "queue", String.valueOf(MSTServer.DEFAULT_QUEUE)));
+        long maxBody = ExternalKruskal.parseSize(option(args, "max-body", "16m"));
+        MSTServer server = new MSTServer(port, threads, queue, maxBody, algorithms);
+        // the server threads keep the JVM alive; on shutdown queued requests are drained before the cache is saved
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            server.close();
+            if (cache != null) {
+                try {
+                    cache.save();
+                    System.out.println("Cache: " + cache.describe());
+                } catch (IOException e) {
+                    System.err.println("❌ Error: could not save cache: " + e.getMessage());
+                }
+            }
+        }));
+        server.start();
+        System.out.println("Serving " + String.join(", ", algorithms.keySet()) + " on http://"
+                + server.getAddress().getHostString() + ":" + server.getAddress().getPort()
+                + " (" + threads + " workers, " + queue + " queued requests)");
+    }
+
+    private static void printGraphRun(GraphRun run) {
+        if (run.getResults().size() == 1) {
+            String algorithm = run.getResults().keySet().iterator().next();
+            MSTResult result = run.getResult(algorithm);
+            printGraphHeader(run);
+            if (result.getPlan() != null) {
+                System.out.println("Planner: " + result.getPlan().getReason());
+            }
+            printAlgorithmResult(engineName(algorithm, result), result);
+            return;
+        }
+        MSTResult prim = run.getResult("prim");
+        MSTResult kruskal = run.getResult("kruskal");
+        printGraphHeader(run);
+
+        printAlgorithmResult("Prim", prim);
+        printAlgorithmResult("Kruskal", kruskal);
+
+        MSTResult boruvka = run.getResult("boruvka");
+        if (boruvka != null) {
+            printAlgorithmResult("Boruvka", boruvka);
+            if (boruvka.getTotalWeight() != kruskal.getTotalWeight()) {
+                System.out.println("✗ ERROR: Boruvka cost " + boruvka.getTotalWeight() + " differs from Kruskal cost " + kruskal.getTotalWeight());
+            }
+        }
+
+        MSTResult forest = run.getResult("forest");
+        if (forest != null) {
+            printAlgorithmResult("Spanning forest", forest);
+            System.out.println("  Components: " + forest.getComponents().size());
+            if (forest.getComponents().size() > 1) {
+                for (MSTComponent component : forest.getComponents()) {
+                    System.out.println("    " + component.getRoot() + ": " + component.getVertexCount()
+                            + " vertices, cost " + component.getTotalWeight());
+                }
+            }
+            if (kruskal.isConnected() && forest.getTotalWeight() != kruskal.getTotalWeight()) {
+                System.out.println("✗ ERROR: Spanning forest cost " + forest.getTotalWeight() + " differs from Kruskal cost " + kruskal.getTotalWeight());
+            }
+        }
+
+        if (prim.getTotalWeight() == kruskal.getTotalWeight()) {
+            System.out.println("✓ CORRECT: Both algorithms found MST with cost " + prim.getTotalWeight());
+        } else {
+            System.out.println("✗ ERROR: MST costs differ! Prim: " + prim.getTotalWeight() + ", Kruskal: " + kruskal.getTotalWeight());
+        }
+
+        System.out.println("Performance comparison:");
+        System.out.println("  Prim was " + String.format("%.2f", (double)run.getNanos("kruskal")/run.getNanos("prim")) + "x faster than Kruskal");
+    }
+
+    private static void printGraphHeader(GraphRun run) {
+        Graph graph = run.getGraph();
+        System.out.println("\n--- Graph " + graph.getId() + " ---");
+        System.out.println("Vertices: " + graph.getVertexCount() + ", Edges: " + graph.getEdgeCount());
+        ReductionStats reduction = run.getResults().values().iterator().next().getReduction();
+        if (reduction != null) {
+            System.out.println("Reduction: " + reduction.describe());
+        }
+    }
+
+    private static void publishMetrics(MetricsSink sink, GraphRun run) {
+        for (String algorithm : run.getResults().keySet()) {
+            PhaseMetrics metrics = run.getResult(algorithm).getMetrics();
+            if (metrics != null) {
+                sink.publish(run.getGraph().getId(), metrics);
+            }
+        }
+    }
+
+    private static String option(String[] args, String name, String defaultValue) {
+        String prefix = "--" + name + "=";
+        for (String arg : args) {
+            if (arg.startsWith(prefix)) {
+                return arg.substring(prefix.length());
+            }
+        }
+        return defaultValue;
+    }
+
     private static void printAlgorithmResult(String algorithmName, MSTResult result) {
         System.out.println(algorithmName + ":");
         System.out.println("  MST Cost: " + result.getTotalWeight());
-        System.out.println("  Execution Time: " + result.getExecutionTimeMs() + " ms");
+        System.out.println("  Execution Time: " + result.getExecutionTimeMs() + " ms" + (result.isCached() ? " (cached)" : ""));
         System.out.println("  Operations: " + result.getOperations());
         System.out.println("  MST Edges: " + result.getMstEdges().size());
 
@@ -71,49 +343,53 @@ public class Main {
         }
     }
 
-    private static void printFinalSummary(List<Graph> graphs, MSTResult[] primResults, MSTResult[] kruskalResults) {
+    private static String engineName(String algorithm, MSTResult result) {
+        return result.getPlan() != null ? result.getPlan().getEngine() : algorithm;
+    }
+
+    private static void printEngineSummary(GraphRun.Totals totals) {
         System.out.println("\n=== FINAL SUMMARY ===");
-        System.out.println("Graph ID | Vertices | Edges | Prim Time | Kruskal Time | Prim Ops | Kruskal Ops | MST Cost");
-        System.out.println("--------|----------|-------|-----------|--------------|----------|-------------|----------");
-
-        for (int i = 0; i < graphs.size(); i++) {
-            Graph graph = graphs.get(i);
-            MSTResult prim = primResults[i];
-            MSTResult kruskal = kruskalResults[i];
-
-            System.out.printf("%7d | %8d | %5d | %9d | %12d | %8d | %11d | %8d%n",
-                graph.getId(),
-                graph.getVertexCount(),
-                graph.getEdgeCount(),
-                prim.getExecutionTimeMs(),
-                kruskal.getExecutionTimeMs(),
-                prim.getOperations(),
-                kruskal.getOperations(),
-                prim.getTotalWeight()
-            );
+        System.out.println("Engine     | Graphs");
+        System.out.println("-----------|-------");
+        for (Map.Entry<String, Integer> engine : totals.engines.entrySet()) {
+            System.out.printf("%-10s | %6d%n", engine.getKey(), engine.getValue());
         }
-
-        analyzePerformance(primResults, kruskalResults);
+        System.out.println("\nGraphs: " + totals.graphs + " (" + totals.connected + " connected)");
+        System.out.println("Total MST cost: " + totals.cost);
+        System.out.println("Total time: " + totals.timeMs + " ms");
     }
 
-    private static void analyzePerformance(MSTResult[] primResults, MSTResult[] kruskalResults) {
-        long totalPrimTime = 0;
-        long totalKruskalTime = 0;
-        int totalPrimOps = 0;
-        int totalKruskalOps = 0;
+    private static void printFinalSummary(Map<String, GraphRun.Totals> totals) {
+        System.out.println("\n=== FINAL SUMMARY ===");
+        System.out.println("Algorithm | Graphs | Connected | Total Time (ms) | Total Ops | Total MST Cost");
+        System.out.println("----------|--------|-----------|-----------------|-----------|---------------");
 
-        for (int i = 0; i < primResults.length; i++) {
-            totalPrimTime += primResults[i].getExecutionTimeMs();
-            totalKruskalTime += kruskalResults[i].getExecutionTimeMs();
-            totalPrimOps += primResults[i].getOperations();
-            totalKruskalOps += kruskalResults[i].getOperations();
+        for (GraphRun.Totals algorithm : totals.values()) {
+            System.out.printf("%-9s | %6d | %9d | %15d | %9d | %14d%n",
+                algorithm.algorithm,
+                algorithm.graphs,
+                algorithm.connected,
+                algorithm.timeMs,
+                algorithm.operations,
+                algorithm.cost
+            );
         }
 
+        analyzePerformance(totals.get("prim"), totals.get("kruskal"));
+    }
+
+    private static void analyzePerformance(GraphRun.Totals prim, GraphRun.Totals kruskal) {
+        long totalPrimTime = prim.timeMs;
+        long totalKruskalTime = kruskal.timeMs;
+
         System.out.println("\n=== PERFORMANCE ANALYSIS ===");
         System.out.println("Total Prim Time: " + totalPrimTime + " ms");
         System.out.println("Total Kruskal Time: " + totalKruskalTime + " ms");
-        System.out.println("Total Prim Operations: " + totalPrimOps);
-        System.out.println("Total Kruskal Operations: " + totalKruskalOps);
+        System.out.println("Total Prim Operations: " + prim.operations);
+        System.out.println("Total Kruskal Operations: " + kruskal.operations);
+        if (prim.cost != kruskal.cost) {
+            System.out.println("✗ ERROR: total MST costs differ! Prim: " + prim.cost + ", Kruskal: " + kruskal.cost);
+        }
 
         if (totalPrimTime < totalKruskalTime) {
             System.out.println("✓ Prim was faster overall");
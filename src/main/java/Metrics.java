@@ -0,0 +1,110 @@
+import java.lang.management.*;
+import java.util.*;
+
+class Metrics {
+    static final boolean ENABLED = !"off".equals(System.getProperty("mst.metrics", "on"));
+
+    private static volatile MetricsSink sink = MetricsSink.NONE;
+
+    static PhaseMetrics start(String algorithm) {
+        return ENABLED ? new PhaseMetrics(algorithm) : null;
+    }
+
+    static long now() {
+        return ENABLED ? System.nanoTime() : 0L;
+    }
+
+    static MetricsSink sink() { return sink; }
+    static void setSink(MetricsSink newSink) { sink = newSink; }
+
+    static long threadAllocatedBytes() {
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean) {
+            com.sun.management.ThreadMXBean allocation = (com.sun.management.ThreadMXBean) bean;
+            if (allocation.isThreadAllocatedMemorySupported() && allocation.isThreadAllocatedMemoryEnabled()) {
+                return allocation.getThreadAllocatedBytes(Thread.currentThread().getId());
+            }
+        }
+        return -1;
+    }
+}
+
+class PhaseMetrics {
+    enum Phase { ADJACENCY_BUILD, SORT, HEAP, UNION_FIND, RESULT_ASSEMBLY, PARTITION, SHARD_WORKERS }
+
+    enum Counter { EDGES_SCANNED, HEAP_PUSHES, HEAP_POPS, STALE_POPS, DECREASE_KEYS, FINDS, PATH_COMPRESSION_STEPS, UNIONS }
+
+    String algorithm;
+    long[] phaseNanos = new long[Phase.values().length];
+    long[] counters = new long[Counter.values().length];
+    long totalNanos;
+    long allocatedBytes = -1;
+    private final long startNanos;
+    private final long startAllocatedBytes;
+
+    PhaseMetrics(String algorithm) {
+        this.algorithm = algorithm;
+        this.startAllocatedBytes = Metrics.threadAllocatedBytes();
+        this.startNanos = System.nanoTime();
+    }
+
+    void phase(Phase phase, long phaseStartNanos) {
+        phaseNanos[phase.ordinal()] += System.nanoTime() - phaseStartNanos;
+    }
+
+    void addPhase(Phase phase, long nanos) {
+        phaseNanos[phase.ordinal()] += nanos;
+    }
+
+    void count(Counter counter, long amount) {
+        counters[counter.ordinal()] += amount;
+    }
+
+    void countDsu(DSU dsu) {
+        count(Counter.FINDS, dsu.getFinds());
+        count(Counter.PATH_COMPRESSION_STEPS, dsu.getPathCompressionSteps());
+        count(Counter.UNIONS, dsu.getUnions());
+    }
+
+    void countDsu(CompactDSU dsu) {
+        count(Counter.FINDS, dsu.getFinds());
+        count(Counter.PATH_COMPRESSION_STEPS, dsu.getPathCompressionSteps());
+        count(Counter.UNIONS, dsu.getUnions());
+    }
+
+    void merge(PhaseMetrics other) {
+        for (int i = 0; i < phaseNanos.length; i++) {
+            phaseNanos[i] += other.phaseNanos[i];
+        }
+        for (int i = 0; i < counters.length; i++) {
+            counters[i] += other.counters[i];
+        }
+    }
+
+    PhaseMetrics finish() {
+        totalNanos = System.nanoTime() - startNanos;
+        long endAllocatedBytes = Metrics.threadAllocatedBytes();
+        if (startAllocatedBytes >= 0 && endAllocatedBytes >= 0) {
+            allocatedBytes = endAllocatedBytes - startAllocatedBytes;
+        }
+        return this;
+    }
+
+    public String getAlgorithm() { return algorithm; }
+    public long getPhaseNanos(Phase phase) { return phaseNanos[phase.ordinal()]; }
+    public long get(Counter counter) { return counters[counter.ordinal()]; }
+    public long getTotalNanos() { return totalNanos; }
+    public long getAllocatedBytes() { return allocatedBytes; }
+
+    public long totalOperations() {
+        long total = 0;
+        for (long counter : counters) {
+            total += counter;
+        }
+        return total;
+    }
+
+    static String key(Enum<?> value) {
+        return value.name().toLowerCase(Locale.ROOT);
+    }
+}
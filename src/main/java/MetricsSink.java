@@ -0,0 +1,132 @@
+import java.io.*;
+import java.nio.file.*;
+import org.json.*;
+
+interface MetricsSink extends Closeable {
+    MetricsSink NONE = (graphId, metrics) -> { };
+
+    void publish(int graphId, PhaseMetrics metrics);
+
+    @Override
+    default void close() throws IOException {
+    }
+
+    static MetricsSink create(String kind) throws IOException {
+        switch (kind) {
+            case "on":
+            case "off":
+                return NONE;
+            case "console":
+                return new ConsoleMetricsSink();
+            case "json":
+                return new JsonMetricsSink("metrics.json");
+            case "csv":
+                return new CsvMetricsSink("metrics.csv");
+            default:
+                throw new IllegalArgumentException("Unknown metrics sink '" + kind + "' (expected off, on, console, json or csv)");
+        }
+    }
+}
+
+class ConsoleMetricsSink implements MetricsSink {
+    @Override
+    public synchronized void publish(int graphId, PhaseMetrics metrics) {
+        StringBuilder line = new StringBuilder();
+        line.append("  [metrics] graph ").append(graphId).append(' ').append(metrics.getAlgorithm())
+            .append(": total ").append(metrics.getTotalNanos()).append(" ns");
+        for (PhaseMetrics.Phase phase : PhaseMetrics.Phase.values()) {
+            if (metrics.getPhaseNanos(phase) > 0) {
+                line.append(", ").append(PhaseMetrics.key(phase)).append(' ').append(metrics.getPhaseNanos(phase)).append(" ns");
+            }
+        }
+        for (PhaseMetrics.Counter counter : PhaseMetrics.Counter.values()) {
+            if (metrics.get(counter) > 0) {
+                line.append(", ").append(PhaseMetrics.key(counter)).append(' ').append(metrics.get(counter));
+            }
+        }
+        if (metrics.getAllocatedBytes() >= 0) {
+            line.append(", allocated ").append(metrics.getAllocatedBytes()).append(" B");
+        }
+        System.out.println(line);
+    }
+}
+
+class JsonMetricsSink implements MetricsSink {
+    private final String filename;
+    private final JSONArray entries = new JSONArray();
+
+    JsonMetricsSink(String filename) {
+        this.filename = filename;
+    }
+
+    @Override
+    public synchronized void publish(int graphId, PhaseMetrics metrics) {
+        JSONObject entry = new JSONObject();
+        entry.put("graph_id", graphId);
+        entry.put("algorithm", metrics.getAlgorithm());
+        entry.put("total_ns", metrics.getTotalNanos());
+        JSONObject phases = new JSONObject();
+        for (PhaseMetrics.Phase phase : PhaseMetrics.Phase.values()) {
+            phases.put(PhaseMetrics.key(phase) + "_ns", metrics.getPhaseNanos(phase));
+        }
+        entry.put("phases", phases);
+        JSONObject counters = new JSONObject();
+        for (PhaseMetrics.Counter counter : PhaseMetrics.Counter.values()) {
+            counters.put(PhaseMetrics.key(counter), metrics.get(counter));
+        }
+        entry.put("counters", counters);
+        entry.put("allocated_bytes", metrics.getAllocatedBytes());
+        entries.put(entry);
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        JSONObject output = new JSONObject();
+        output.put("metrics", entries);
+        Files.write(Paths.get(filename), output.toString(2).getBytes());
+        System.out.println("✓ Metrics saved to " + filename);
+    }
+}
+
+class CsvMetricsSink implements MetricsSink {
+    private final String filename;
+    private final BufferedWriter writer;
+
+    CsvMetricsSink(String filename) throws IOException {
+        this.filename = filename;
+        writer = Files.newBufferedWriter(Paths.get(filename));
+        StringBuilder header = new StringBuilder("graph_id,algorithm,total_ns");
+        for (PhaseMetrics.Phase phase : PhaseMetrics.Phase.values()) {
+            header.append(',').append(PhaseMetrics.key(phase)).append("_ns");
+        }
+        for (PhaseMetrics.Counter counter : PhaseMetrics.Counter.values()) {
+            header.append(',').append(PhaseMetrics.key(counter));
+        }
+        header.append(",allocated_bytes\n");
+        writer.write(header.toString());
+    }
+
+    @Override
+    public synchronized void publish(int graphId, PhaseMetrics metrics) {
+        StringBuilder row = new StringBuilder();
+        row.append(graphId).append(',').append(metrics.getAlgorithm()).append(',').append(metrics.getTotalNanos());
+        for (PhaseMetrics.Phase phase : PhaseMetrics.Phase.values()) {
+            row.append(',').append(metrics.getPhaseNanos(phase));
+        }
+        for (PhaseMetrics.Counter counter : PhaseMetrics.Counter.values()) {
+            row.append(',').append(metrics.get(counter));
+        }
+        row.append(',').append(metrics.getAllocatedBytes()).append('\n');
+        try {
+            writer.write(row.toString());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        writer.close();
+        System.out.println("✓ Metrics saved to " + filename);
+    }
+}
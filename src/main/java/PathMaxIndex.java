@@ -0,0 +1,194 @@
+import java.util.*;
+import java.util.concurrent.*;
+
+public class PathMaxIndex {
+    private static final int NO_EDGE = -1;
+    private static final long NO_KEY = Long.MIN_VALUE;
+
+    private final CompactGraph g;
+    private final List<Edge> treeEdges;
+    private final int[] treeWeight;
+    private final int[] depth;
+    private final int[] component;
+    private final int levels;
+    private final int[] up;
+    private final long[] maxKey;
+
+    public PathMaxIndex(Graph graph, MSTResult mst) {
+        this.g = graph.getCompact();
+        this.treeEdges = mst.getMstEdges();
+        int n = g.vertexCount();
+        int k = treeEdges.size();
+
+        CompactGraph tree = new CompactGraph(n, k);
+        tree.edgeFrom = new int[k];
+        tree.edgeTo = new int[k];
+        tree.edgeWeight = new int[k];
+        for (int e = 0; e < k; e++) {
+            Edge edge = treeEdges.get(e);
+            tree.edgeFrom[e] = g.id(edge.getFrom());
+            tree.edgeTo[e] = g.id(edge.getTo());
+            tree.edgeWeight[e] = edge.getWeight();
+        }
+        tree.buildAdjacency();
+        this.treeWeight = tree.edgeWeight;
+
+        depth = new int[n];
+        component = new int[n];
+        int[] parent = new int[n];
+        int[] parentEdge = new int[n];
+        Arrays.fill(component, -1);
+        int[] queue = new int[n];
+        int head = 0;
+        int tail = 0;
+        int maxDepth = 0;
+        for (int root = 0; root < n; root++) {
+            if (component[root] >= 0) {
+                continue;
+            }
+            component[root] = root;
+            parent[root] = root;
+            parentEdge[root] = NO_EDGE;
+            queue[tail++] = root;
+            while (head < tail) {
+                int v = queue[head++];
+                for (int j = tree.offset(v); j < tree.offset(v + 1); j++) {
+                    int w = tree.target(j);
+                    if (component[w] >= 0) {
+                        continue;
+                    }
+                    component[w] = root;
+                    parent[w] = v;
+                    parentEdge[w] = tree.targetEdge(j);
+                    depth[w] = depth[v] + 1;
+                    maxDepth = Math.max(maxDepth, depth[w]);
+                    queue[tail++] = w;
+                }
+            }
+        }
+        if (k != n - countRoots()) {
+            throw new IllegalArgumentException("MST edges of graph " + graph.getId() + " do not form a forest");
+        }
+
+        int levelCount = 1;
+        while ((1 << levelCount) <= maxDepth) {
+            levelCount++;
+        }
+        if ((long) n * levelCount > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("Tree of graph " + graph.getId() + " is too deep to index: " + n + " vertices, depth " + maxDepth);
+        }
+        levels = levelCount;
+        // tables are laid out vertex-major so one vertex's ancestors share cache lines;
+        // filling in BFS order guarantees every ancestor row is complete before it is read
+        up = new int[n * levels];
+        maxKey = new long[n * levels];
+        for (int i = 0; i < n; i++) {
+            int v = queue[i];
+            int row = v * levels;
+            up[row] = parent[v];
+            maxKey[row] = parentEdge[v] == NO_EDGE ? NO_KEY : LongMinHeap.pack(treeWeight[parentEdge[v]], parentEdge[v]);
+            for (int level = 1; level < levels; level++) {
+                int mid = up[row + level - 1] * levels + level - 1;
+                up[row + level] = up[mid];
+                maxKey[row + level] = Math.max(maxKey[row + level - 1], maxKey[mid]);
+            }
+        }
+    }
+
+    private int countRoots() {
+        int roots = 0;
+        for (int v = 0; v < component.length; v++) {
+            if (component[v] == v) {
+                roots++;
+            }
+        }
+        return roots;
+    }
+
+    public int id(String name) { return g.id(name); }
+    public boolean connected(int u, int v) { return component[u] == component[v]; }
+
+    int parent(int v) { return up[v * levels]; }
+    int depth(int v) { return depth[v]; }
+    int treeWeight(int treeEdge) { return treeWeight[treeEdge]; }
+
+    int parentEdge(int v) {
+        long key = maxKey[v * levels];
+        return key == NO_KEY ? NO_EDGE : LongMinHeap.valueOf(key);
+    }
+
+    public int bottleneckEdge(int u, int v) {
+        if (component[u] != component[v]) {
+            return NO_EDGE;
+        }
+        long best = NO_KEY;
+        if (depth[u] < depth[v]) {
+            int t = u;
+            u = v;
+            v = t;
+        }
+        int diff = depth[u] - depth[v];
+        for (int level = 0; diff > 0; level++, diff >>= 1) {
+            if ((diff & 1) != 0) {
+                best = Math.max(best, maxKey[u * levels + level]);
+                u = up[u * levels + level];
+            }
+        }
+        if (u != v) {
+            for (int level = levels - 1; level >= 0; level--) {
+                int upU = up[u * levels + level];
+                int upV = up[v * levels + level];
+                if (upU != upV) {
+                    best = Math.max(best, Math.max(maxKey[u * levels + level], maxKey[v * levels + level]));
+                    u = upU;
+                    v = upV;
+                }
+            }
+            best = Math.max(best, Math.max(maxKey[u * levels], maxKey[v * levels]));
+        }
+        return best == NO_KEY ? NO_EDGE : LongMinHeap.valueOf(best);
+    }
+
+    public Edge bottleneck(String from, String to) {
+        int e = bottleneckEdge(id(from), id(to));
+        return e == NO_EDGE ? null : treeEdges.get(e);
+    }
+
+    public boolean wouldImprove(int u, int v, int weight) {
+        int e = bottleneckEdge(u, v);
+        return e != NO_EDGE && weight < treeWeight[e];
+    }
+
+    public boolean wouldImprove(String from, String to, int weight) {
+        return wouldImprove(id(from), id(to), weight);
+    }
+
+    public int[] bottleneckEdges(int[] from, int[] to) {
+        return bottleneckEdges(from, to, ForkJoinPool.commonPool());
+    }
+
+    public int[] bottleneckEdges(int[] from, int[] to, ForkJoinPool pool) {
+        int count = from.length;
+        int[] result = new int[count];
+        int chunkSize = ForkJoinChunks.chunkSize(count, pool.getParallelism());
+        int chunks = (count + chunkSize - 1) / chunkSize;
+        ForkJoinChunks.forEachChunk(pool, chunks, c -> {
+            int end = Math.min((c + 1) * chunkSize, count);
+            for (int i = c * chunkSize; i < end; i++) {
+                result[i] = bottleneckEdge(from[i], to[i]);
+            }
+        });
+        return result;
+    }
+
+    public boolean[] wouldImprove(int[] from, int[] to, int[] weight) {
+        int[] bottlenecks = bottleneckEdges(from, to);
+        boolean[] result = new boolean[bottlenecks.length];
+        for (int i = 0; i < bottlenecks.length; i++) {
+            result[i] = bottlenecks[i] != NO_EDGE && weight[i] < treeWeight[bottlenecks[i]];
+        }
+        return result;
+    }
+
+    public List<Edge> getTreeEdges() { return treeEdges; }
+}
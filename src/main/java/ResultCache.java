@@ -0,0 +1,352 @@
+import java.io.*;
+import java.nio.*;
+import java.nio.file.*;
+import java.security.*;
+import java.util.*;
+import java.util.function.*;
+
+public class ResultCache {
+    static final String DEFAULT_FILE = "mst-cache.bin";
+    static final long DEFAULT_MAX_EDGES = 1_000_000;
+
+    private static final int MAGIC = 0x4D535443;
+    private static final int VERSION = 2;
+
+    private final Path file;
+    private final long maxEdges;
+    private final LinkedHashMap<String, CachedResult> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long storedEdges;
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    public ResultCache(Path file, long maxEdges) {
+        if (maxEdges < 0) {
+            throw new IllegalArgumentException("Cache size must not be negative: " + maxEdges);
+        }
+        this.file = file;
+        this.maxEdges = maxEdges;
+    }
+
+    public static ResultCache load(String filename, long maxEdges) throws IOException {
+        ResultCache cache = new ResultCache(Paths.get(filename), maxEdges);
+        if (!Files.exists(cache.file)) {
+            return cache;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(cache.file)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                throw new IOException("Not an MST result cache (or an unsupported version): " + filename);
+            }
+            int count = in.readInt();
+            // entries are stored least recently used first, so replaying them restores the LRU order
+            for (int i = 0; i < count; i++) {
+                String key = in.readUTF();
+                cache.store(key, CachedResult.read(in));
+            }
+        }
+        return cache;
+    }
+
+    public synchronized void save() throws IOException {
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(entries.size());
+            for (Map.Entry<String, CachedResult> entry : entries.entrySet()) {
+                out.writeUTF(entry.getKey());
+                entry.getValue().write(out);
+            }
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    public Function<Graph, MSTResult> around(String label, Function<Graph, MSTResult> engine) {
+        return graph -> {
+            long startTime = System.nanoTime();
+            CompactGraph g = graph.getCompact();
+            String key = contentHash(graph) + ":" + label;
+            CachedResult cached = lookup(key, g.vertexCount(), g.edgeCount());
+            if (cached != null) {
+                return cached.toResult(startTime);
+            }
+            MSTResult result = engine.apply(graph);
+            synchronized (this) {
+                store(key, CachedResult.of(g, result));
+            }
+            return result;
+        };
+    }
+
+    // a key match for a graph of another size is a hash collision; it is recomputed, so it counts as a miss
+    private synchronized CachedResult lookup(String key, int vertices, int edges) {
+        CachedResult cached = entries.get(key);
+        if (cached == null || cached.vertices != vertices || cached.edges != edges) {
+            misses++;
+            return null;
+        }
+        hits++;
+        return cached;
+    }
+
+    private void store(String key, CachedResult result) {
+        CachedResult previous = entries.put(key, result);
+        if (previous != null) {
+            storedEdges -= previous.size();
+        }
+        storedEdges += result.size();
+        Iterator<CachedResult> eldest = entries.values().iterator();
+        while (storedEdges > maxEdges && eldest.hasNext()) {
+            storedEdges -= eldest.next().size();
+            eldest.remove();
+            evictions++;
+        }
+    }
+
+    // vertices and edges are reduced to 64-bit fingerprints and sorted before hashing, so the key
+    // depends only on the multiset of (name, coordinates) vertices and (endpoints, weight) edges
+    static String contentHash(Graph graph) {
+        String hash = graph.contentHash;
+        if (hash != null) {
+            return hash;
+        }
+        CompactGraph g = graph.getCompact();
+        int n = g.vertexCount();
+        int m = g.edgeCount();
+        long[] vertexPrint = new long[n];
+        for (int v = 0; v < n; v++) {
+            long print = fingerprint(g.name(v));
+            if (g.hasCoordinates()) {
+                print = mix(print ^ Double.doubleToLongBits(g.x(v) + 0.0));
+                print = mix(print ^ Double.doubleToLongBits(g.y(v) + 0.0));
+            }
+            vertexPrint[v] = print;
+        }
+        long[] edgePrint = new long[m];
+        for (int e = 0; e < m; e++) {
+            long a = vertexPrint[g.from(e)];
+            long b = vertexPrint[g.to(e)];
+            long print = mix(Math.min(a, b));
+            print = mix(print ^ Math.max(a, b));
+            edgePrint[e] = mix(print ^ (g.weight(e) & 0xFFFFFFFFL));
+        }
+        long[] sortedVertices = vertexPrint.clone();
+        Arrays.sort(sortedVertices);
+        Arrays.sort(edgePrint);
+
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException("SHA-256 is not available", e);
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(8192);
+        buffer.putInt(n).putInt(m).put((byte) (g.hasCoordinates() ? 1 : 0));
+        for (long[] prints : new long[][] { sortedVertices, edgePrint }) {
+            for (long print : prints) {
+                if (buffer.remaining() < Long.BYTES) {
+                    digest.update(buffer.array(), 0, buffer.position());
+                    buffer.clear();
+                }
+                buffer.putLong(print);
+            }
+        }
+        digest.update(buffer.array(), 0, buffer.position());
+
+        StringBuilder hex = new StringBuilder(64);
+        for (byte b : digest.digest()) {
+            hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        hash = hex.toString();
+        graph.contentHash = hash;
+        return hash;
+    }
+
+    private static long fingerprint(String name) {
+        long hash = 0xCBF29CE484222325L;
+        for (int i = 0; i < name.length(); i++) {
+            hash = (hash ^ name.charAt(i)) * 0x100000001B3L;
+        }
+        return mix(hash ^ name.length());
+    }
+
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    public synchronized long getHits() { return hits; }
+    public synchronized long getMisses() { return misses; }
+    public synchronized long getEvictions() { return evictions; }
+    public synchronized int size() { return entries.size(); }
+
+    public synchronized String describe() {
+        long lookups = hits + misses;
+        return String.format(Locale.ROOT, "%d hits, %d misses (%.1f%% hit rate), %d evictions, %d entries holding %d of %d edges in %s",
+                hits, misses, lookups == 0 ? 0.0 : 100.0 * hits / lookups, evictions, entries.size(), storedEdges, maxEdges, file);
+    }
+}
+
+class CachedResult {
+    int vertices;
+    int edges;
+    List<Edge> mstEdges;
+    int totalWeight;
+    long operations;
+    long executionTimeMs;
+    boolean connected;
+    List<MSTComponent> components;
+    MSTPlan plan;
+    ReductionStats reduction;
+
+    static CachedResult of(CompactGraph g, MSTResult result) {
+        CachedResult cached = new CachedResult();
+        cached.vertices = g.vertexCount();
+        cached.edges = g.edgeCount();
+        cached.totalWeight = result.getTotalWeight();
+        cached.operations = result.getOperations();
+        cached.executionTimeMs = result.getExecutionTimeMs();
+        cached.connected = result.isConnected();
+        cached.plan = result.getPlan();
+        cached.reduction = result.getReduction();
+        if (result.getComponents() == null) {
+            cached.mstEdges = new ArrayList<>(result.getMstEdges());
+            return cached;
+        }
+        // components are kept as consecutive runs of one edge list, which is also how they are stored
+        cached.mstEdges = new ArrayList<>(result.getMstEdges().size());
+        for (MSTComponent component : result.getComponents()) {
+            cached.mstEdges.addAll(component.getMstEdges());
+        }
+        cached.components = new ArrayList<>(result.getComponents().size());
+        int first = 0;
+        for (MSTComponent component : result.getComponents()) {
+            int size = component.getMstEdges().size();
+            cached.components.add(new MSTComponent(component.getRoot(), component.getVertexCount(),
+                    cached.mstEdges.subList(first, first + size), component.getTotalWeight()));
+            first += size;
+        }
+        return cached;
+    }
+
+    long size() {
+        return mstEdges.size() + 1;
+    }
+
+    MSTResult toResult(long startTime) {
+        MSTResult result = new MSTResult(mstEdges, totalWeight, operations, (System.nanoTime() - startTime) / 1_000_000, connected);
+        result.components = components;
+        result.plan = plan;
+        result.reduction = reduction;
+        result.cached = true;
+        return result;
+    }
+
+    void write(DataOutputStream out) throws IOException {
+        out.writeInt(vertices);
+        out.writeInt(edges);
+        out.writeInt(totalWeight);
+        out.writeLong(operations);
+        out.writeLong(executionTimeMs);
+        out.writeBoolean(connected);
+        out.writeInt(mstEdges.size());
+        for (Edge edge : mstEdges) {
+            out.writeUTF(edge.getFrom());
+            out.writeUTF(edge.getTo());
+            out.writeInt(edge.getWeight());
+        }
+        out.writeBoolean(plan != null);
+        if (plan != null) {
+            out.writeUTF(plan.getEngine());
+            out.writeUTF(plan.getReason());
+            out.writeInt(plan.getVertices());
+            out.writeInt(plan.getEdges());
+            out.writeDouble(plan.getDensity());
+            out.writeInt(plan.getMinWeight());
+            out.writeInt(plan.getMaxWeight());
+            out.writeInt(plan.getEstimatedMs().size());
+            for (Map.Entry<String, Double> estimate : plan.getEstimatedMs().entrySet()) {
+                out.writeUTF(estimate.getKey());
+                out.writeDouble(estimate.getValue());
+            }
+        }
+        out.writeInt(components == null ? -1 : components.size());
+        if (components != null) {
+            for (MSTComponent component : components) {
+                out.writeUTF(component.getRoot());
+                out.writeInt(component.getVertexCount());
+                out.writeInt(component.getMstEdges().size());
+                out.writeInt(component.getTotalWeight());
+            }
+        }
+        out.writeBoolean(reduction != null);
+        if (reduction != null) {
+            out.writeInt(reduction.originalVertices);
+            out.writeInt(reduction.originalEdges);
+            out.writeInt(reduction.selfLoops);
+            out.writeInt(reduction.parallelEdges);
+            out.writeInt(reduction.leafVertices);
+            out.writeInt(reduction.chainVertices);
+            out.writeInt(reduction.mergedEdges);
+            out.writeInt(reduction.reducedVertices);
+            out.writeInt(reduction.reducedEdges);
+            out.writeLong(reduction.nanos);
+        }
+    }
+
+    static CachedResult read(DataInputStream in) throws IOException {
+        CachedResult cached = new CachedResult();
+        cached.vertices = in.readInt();
+        cached.edges = in.readInt();
+        cached.totalWeight = in.readInt();
+        cached.operations = in.readLong();
+        cached.executionTimeMs = in.readLong();
+        cached.connected = in.readBoolean();
+        int edgeCount = in.readInt();
+        cached.mstEdges = new ArrayList<>(edgeCount);
+        for (int i = 0; i < edgeCount; i++) {
+            cached.mstEdges.add(new Edge(in.readUTF(), in.readUTF(), in.readInt()));
+        }
+        if (in.readBoolean()) {
+            String engine = in.readUTF();
+            String reason = in.readUTF();
+            int vertices = in.readInt();
+            int edges = in.readInt();
+            double density = in.readDouble();
+            int minWeight = in.readInt();
+            int maxWeight = in.readInt();
+            int estimateCount = in.readInt();
+            Map<String, Double> estimatedMs = new LinkedHashMap<>();
+            for (int i = 0; i < estimateCount; i++) {
+                estimatedMs.put(in.readUTF(), in.readDouble());
+            }
+            cached.plan = new MSTPlan(engine, reason, vertices, edges, density, minWeight, maxWeight, estimatedMs);
+        }
+        int componentCount = in.readInt();
+        if (componentCount >= 0) {
+            cached.components = new ArrayList<>(componentCount);
+            int first = 0;
+            for (int i = 0; i < componentCount; i++) {
+                String root = in.readUTF();
+                int vertexCount = in.readInt();
+                int size = in.readInt();
+                cached.components.add(new MSTComponent(root, vertexCount, cached.mstEdges.subList(first, first + size), in.readInt()));
+                first += size;
+            }
+        }
+        if (in.readBoolean()) {
+            ReductionStats reduction = new ReductionStats(in.readInt(), in.readInt());
+            reduction.selfLoops = in.readInt();
+            reduction.parallelEdges = in.readInt();
+            reduction.leafVertices = in.readInt();
+            reduction.chainVertices = in.readInt();
+            reduction.mergedEdges = in.readInt();
+            reduction.reducedVertices = in.readInt();
+            reduction.reducedEdges = in.readInt();
+            reduction.nanos = in.readLong();
+            cached.reduction = reduction;
+        }
+        return cached;
+    }
+}
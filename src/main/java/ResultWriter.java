@@ -0,0 +1,304 @@
+import java.io.*;
+import java.nio.charset.*;
+import java.nio.file.*;
+import java.util.*;
+import java.util.zip.*;
+import org.json.*;
+
+// Writes output.json one graph at a time straight to a buffered stream; nothing but the current
+// graph's results is held, and NDJSON output is flushed per line so it can be tailed mid-batch.
+public class ResultWriter implements Closeable {
+    enum Format { PRETTY, COMPACT, NDJSON }
+
+    private static final int BUFFER_BYTES = 1 << 16;
+
+    private final Writer out;
+    private final JsonStreamWriter json;
+    private final Format format;
+
+    public ResultWriter(OutputStream stream, Format format) throws IOException {
+        this.out = new BufferedWriter(new OutputStreamWriter(stream, StandardCharsets.UTF_8), BUFFER_BYTES);
+        this.json = new JsonStreamWriter(out, format == Format.PRETTY);
+        this.format = format;
+        if (format != Format.NDJSON) {
+            json.beginObject().key("results").beginArray();
+        }
+    }
+
+    public static ResultWriter open(String filename, Format format, boolean gzip) throws IOException {
+        OutputStream stream = Files.newOutputStream(Paths.get(filename));
+        if (gzip) {
+            // sync flush makes every flushed NDJSON line readable through zcat while the batch runs
+            stream = new GZIPOutputStream(stream, BUFFER_BYTES, true);
+        }
+        return new ResultWriter(stream, format);
+    }
+
+    static Format format(String name) {
+        switch (name) {
+            case "pretty":
+                return Format.PRETTY;
+            case "compact":
+                return Format.COMPACT;
+            case "ndjson":
+                return Format.NDJSON;
+            default:
+                throw new IllegalArgumentException("Unknown output format '" + name + "' (expected pretty, compact or ndjson)");
+        }
+    }
+
+    static String defaultFile(Format format, boolean gzip) {
+        return (format == Format.NDJSON ? "output.ndjson" : "output.json") + (gzip ? ".gz" : "");
+    }
+
+    public void write(GraphRun run, SensitivityReport sensitivity) throws IOException {
+        write(run.getGraph(), run.getResults(), sensitivity);
+    }
+
+    public void write(Graph graph, Map<String, MSTResult> results, SensitivityReport sensitivity) throws IOException {
+        json.beginObject();
+        json.key("graph_id").value(graph.getId());
+        json.key("input_stats").beginObject()
+                .key("vertices").value(graph.getVertexCount())
+                .key("edges").value(graph.getEdgeCount())
+                .endObject();
+        for (Map.Entry<String, MSTResult> entry : results.entrySet()) {
+            json.key(entry.getKey());
+            writeAlgorithmResult(entry.getValue());
+        }
+        if (sensitivity != null) {
+            json.key("sensitivity");
+            writeSensitivity(sensitivity);
+        }
+        json.endObject();
+        if (format == Format.NDJSON) {
+            out.write('\n');
+            out.flush();
+        }
+    }
+
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    private void writeAlgorithmResult(MSTResult result) throws IOException {
+        json.beginObject();
+        json.key("mst_edges").beginArray();
+        for (Edge edge : result.getMstEdges()) {
+            writeEdge(edge).endObject();
+        }
+        json.endArray();
+        json.key("total_cost").value(result.getTotalWeight());
+        json.key("operations_count").value(result.getOperations());
+        json.key("execution_time_ms").value(result.getExecutionTimeMs());
+        json.key("connected").value(result.isConnected());
+        if (result.isCached()) {
+            json.key("cached").value(true);
+        }
+        if (result.getPlan() != null) {
+            MSTPlan plan = result.getPlan();
+            json.key("planner").beginObject()
+                    .key("engine").value(plan.getEngine())
+                    .key("reason").value(plan.getReason())
+                    .key("vertices").value(plan.getVertices())
+                    .key("edges").value(plan.getEdges())
+                    .key("density").value(plan.getDensity())
+                    .key("min_weight").value(plan.getMinWeight())
+                    .key("max_weight").value(plan.getMaxWeight());
+            json.key("estimated_ms").beginObject();
+            for (Map.Entry<String, Double> estimate : plan.getEstimatedMs().entrySet()) {
+                json.key(estimate.getKey()).value(estimate.getValue());
+            }
+            json.endObject().endObject();
+        }
+        if (result.getReduction() != null) {
+            ReductionStats stats = result.getReduction();
+            json.key("reduction").beginObject()
+                    .key("original_vertices").value(stats.getOriginalVertices())
+                    .key("original_edges").value(stats.getOriginalEdges())
+                    .key("self_loops").value(stats.getSelfLoops())
+                    .key("parallel_edges").value(stats.getParallelEdges())
+                    .key("leaf_vertices").value(stats.getLeafVertices())
+                    .key("chain_vertices").value(stats.getChainVertices())
+                    .key("merged_edges").value(stats.getMergedEdges())
+                    .key("reduced_vertices").value(stats.getReducedVertices())
+                    .key("reduced_edges").value(stats.getReducedEdges())
+                    .key("reduction_ms").value(stats.getNanos() / 1e6)
+                    .endObject();
+        }
+        if (result.getComponents() != null) {
+            json.key("components").beginArray();
+            for (MSTComponent component : result.getComponents()) {
+                json.beginObject()
+                        .key("root").value(component.getRoot())
+                        .key("vertices").value(component.getVertexCount())
+                        .key("edge_count").value(component.getMstEdges().size())
+                        .key("total_cost").value(component.getTotalWeight())
+                        .endObject();
+            }
+            json.endArray();
+        }
+        json.endObject();
+    }
+
+    private void writeSensitivity(SensitivityReport report) throws IOException {
+        json.beginObject();
+        json.key("bridges").value(report.getBridgeCount());
+        json.key("mst_edges").beginArray();
+        List<Edge> treeEdges = report.getTreeEdges();
+        for (int t = 0; t < treeEdges.size(); t++) {
+            writeEdge(treeEdges.get(t));
+            if (report.isBridge(t)) {
+                json.key("replacement").nullValue();
+                json.key("tolerance").nullValue();
+            } else {
+                json.key("replacement");
+                writeEdge(report.getReplacement(t)).endObject();
+                json.key("tolerance").value(report.getTolerance(t));
+            }
+            json.endObject();
+        }
+        json.endArray();
+        json.endObject();
+    }
+
+    // leaves the edge object open so callers can add fields
+    private JsonStreamWriter writeEdge(Edge edge) throws IOException {
+        return json.beginObject()
+                .key("from").value(edge.getFrom())
+                .key("to").value(edge.getTo())
+                .key("weight").value(edge.getWeight());
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (format != Format.NDJSON) {
+            json.endArray().endObject();
+            out.write('\n');
+        }
+        out.close();
+    }
+}
+
+class JsonStreamWriter {
+    private final Writer out;
+    private final boolean pretty;
+    private boolean[] empty = new boolean[16];
+    private int depth;
+    private boolean afterKey;
+
+    JsonStreamWriter(Writer out, boolean pretty) {
+        this.out = out;
+        this.pretty = pretty;
+    }
+
+    JsonStreamWriter beginObject() throws IOException {
+        beforeValue();
+        out.write('{');
+        push();
+        return this;
+    }
+
+    JsonStreamWriter endObject() throws IOException {
+        pop('}');
+        return this;
+    }
+
+    JsonStreamWriter beginArray() throws IOException {
+        beforeValue();
+        out.write('[');
+        push();
+        return this;
+    }
+
+    JsonStreamWriter endArray() throws IOException {
+        pop(']');
+        return this;
+    }
+
+    JsonStreamWriter key(String name) throws IOException {
+        separate();
+        JSONObject.quote(name, out);
+        out.write(pretty ? ": " : ":");
+        afterKey = true;
+        return this;
+    }
+
+    JsonStreamWriter value(String value) throws IOException {
+        beforeValue();
+        JSONObject.quote(value, out);
+        return this;
+    }
+
+    JsonStreamWriter value(long value) throws IOException {
+        beforeValue();
+        out.write(Long.toString(value));
+        return this;
+    }
+
+    JsonStreamWriter value(double value) throws IOException {
+        if (Double.isNaN(value) || Double.isInfinite(value)) {
+            return nullValue();
+        }
+        beforeValue();
+        out.write(JSONObject.numberToString(value));
+        return this;
+    }
+
+    JsonStreamWriter value(boolean value) throws IOException {
+        beforeValue();
+        out.write(value ? "true" : "false");
+        return this;
+    }
+
+    JsonStreamWriter nullValue() throws IOException {
+        beforeValue();
+        out.write("null");
+        return this;
+    }
+
+    private void beforeValue() throws IOException {
+        if (afterKey) {
+            afterKey = false;
+        } else {
+            separate();
+        }
+    }
+
+    private void separate() throws IOException {
+        if (depth == 0) {
+            return;
+        }
+        if (!empty[depth]) {
+            out.write(',');
+        }
+        empty[depth] = false;
+        newline();
+    }
+
+    private void push() {
+        depth++;
+        if (depth == empty.length) {
+            empty = Arrays.copyOf(empty, 2 * depth);
+        }
+        empty[depth] = true;
+    }
+
+    private void pop(char close) throws IOException {
+        boolean wasEmpty = empty[depth];
+        depth--;
+        if (!wasEmpty) {
+            newline();
+        }
+        out.write(close);
+    }
+
+    private void newline() throws IOException {
+        if (pretty) {
+            out.write('\n');
+            for (int i = 0; i < depth; i++) {
+                out.write("  ");
+            }
+        }
+    }
+}
@@ -0,0 +1,104 @@
+import java.util.*;
+
+public class SensitivityAnalysis {
+    private static final int NONE = -1;
+
+    public static SensitivityReport analyze(Graph graph, MSTResult mst) {
+        CompactGraph g = graph.getCompact();
+        PathMaxIndex index = new PathMaxIndex(graph, mst);
+        List<Edge> treeEdges = index.getTreeEdges();
+        int n = g.vertexCount();
+        int k = treeEdges.size();
+
+        int[] replacement = new int[k];
+        Arrays.fill(replacement, NONE);
+        int[] jump = new int[n];
+        for (int v = 0; v < n; v++) {
+            jump[v] = v;
+        }
+        boolean[] claimed = new boolean[n];
+        int covered = 0;
+
+        long[] keys = EdgeSorter.sortedKeys(g);
+        for (int i = 0; i < keys.length && covered < k; i++) {
+            int e = LongMinHeap.valueOf(keys[i]);
+            int u = g.from(e);
+            int v = g.to(e);
+            int w = g.weight(e);
+            if (u == v || !index.connected(u, v)) {
+                continue;
+            }
+            if (claimTreeEdge(index, claimed, u, v, w) || claimTreeEdge(index, claimed, v, u, w)) {
+                continue;
+            }
+
+            int x = find(jump, u);
+            int y = find(jump, v);
+            while (x != y) {
+                if (index.depth(x) < index.depth(y)) {
+                    int t = x;
+                    x = y;
+                    y = t;
+                }
+                replacement[index.parentEdge(x)] = e;
+                covered++;
+                jump[x] = index.parent(x);
+                x = find(jump, x);
+            }
+        }
+
+        Edge[] replacements = new Edge[k];
+        int[] tolerances = new int[k];
+        for (int t = 0; t < k; t++) {
+            if (replacement[t] != NONE) {
+                replacements[t] = g.toEdge(replacement[t]);
+                tolerances[t] = g.weight(replacement[t]) - index.treeWeight(t);
+            }
+        }
+        return new SensitivityReport(treeEdges, replacements, tolerances);
+    }
+
+    private static boolean claimTreeEdge(PathMaxIndex index, boolean[] claimed, int child, int parent, int weight) {
+        int treeEdge = index.parentEdge(child);
+        if (treeEdge == NONE || claimed[child] || index.parent(child) != parent || index.treeWeight(treeEdge) != weight) {
+            return false;
+        }
+        claimed[child] = true;
+        return true;
+    }
+
+    private static int find(int[] jump, int x) {
+        while (jump[x] != x) {
+            jump[x] = jump[jump[x]];
+            x = jump[x];
+        }
+        return x;
+    }
+}
+
+class SensitivityReport {
+    List<Edge> treeEdges;
+    Edge[] replacements;
+    int[] tolerances;
+
+    public SensitivityReport(List<Edge> treeEdges, Edge[] replacements, int[] tolerances) {
+        this.treeEdges = treeEdges;
+        this.replacements = replacements;
+        this.tolerances = tolerances;
+    }
+
+    public List<Edge> getTreeEdges() { return treeEdges; }
+    public Edge getReplacement(int treeEdge) { return replacements[treeEdge]; }
+    public boolean isBridge(int treeEdge) { return replacements[treeEdge] == null; }
+    public int getTolerance(int treeEdge) { return tolerances[treeEdge]; }
+
+    public int getBridgeCount() {
+        int bridges = 0;
+        for (Edge replacement : replacements) {
+            if (replacement == null) {
+                bridges++;
+            }
+        }
+        return bridges;
+    }
+}
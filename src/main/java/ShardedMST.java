@@ -0,0 +1,230 @@
+import java.io.*;
+import java.nio.file.*;
+import java.util.*;
+
+public class ShardedMST {
+    static final int DEFAULT_SHARDS = 4;
+    private static final int PIPE_BUFFER_BYTES = 1 << 16;
+
+    public static MSTResult run(Graph graph) {
+        return run(graph, DEFAULT_SHARDS, null);
+    }
+
+    // Every shard forest is computed by a child JVM that only ever holds that shard's internal edges.
+    // An internal edge missing from its shard forest is the heaviest edge on a cycle inside the shard,
+    // so by the cycle property it is not needed for the MST of the whole graph either; Kruskal over
+    // the shard forests plus the cut edges therefore finds a minimum spanning forest of the same cost.
+    public static MSTResult run(Graph graph, int shards, String workerHeap) {
+        if (shards < 1) {
+            throw new IllegalArgumentException("Shard count must be positive: " + shards);
+        }
+        long startTime = System.nanoTime();
+        PhaseMetrics metrics = Metrics.start("sharded_kruskal");
+        CompactGraph g = graph.getCompact();
+        int n = g.vertexCount();
+        int m = g.edgeCount();
+        int k = Math.min(shards, n);
+
+        long partitionStart = Metrics.now();
+        int[] shard = new int[n];
+        int[] local = new int[n];
+        int[][] vertices = partition(g, k, shard, local);
+        int[] internal = new int[k];
+        int cut = 0;
+        for (int e = 0; e < m; e++) {
+            if (shard[g.from(e)] == shard[g.to(e)]) {
+                internal[shard[g.from(e)]]++;
+            } else {
+                cut++;
+            }
+        }
+
+        long shardStart = Metrics.now();
+        Process[] workers = new Process[k];
+        int[][] forests = new int[k][];
+        int[] cutEdges = new int[cut];
+        try {
+            DataOutputStream[] requests = new DataOutputStream[k];
+            for (int s = 0; s < k; s++) {
+                workers[s] = startWorker(workerHeap);
+                requests[s] = new DataOutputStream(new BufferedOutputStream(workers[s].getOutputStream(), PIPE_BUFFER_BYTES));
+                requests[s].writeInt(vertices[s].length);
+                requests[s].writeInt(internal[s]);
+            }
+            // workers only answer after reading their whole shard, so streaming to all of them at once cannot deadlock
+            int c = 0;
+            for (int e = 0; e < m; e++) {
+                int u = g.from(e);
+                int v = g.to(e);
+                if (shard[u] == shard[v]) {
+                    DataOutputStream request = requests[shard[u]];
+                    request.writeInt(local[u]);
+                    request.writeInt(local[v]);
+                    request.writeInt(g.weight(e));
+                } else {
+                    cutEdges[c++] = e;
+                }
+            }
+            for (DataOutputStream request : requests) {
+                request.close();
+            }
+            for (int s = 0; s < k; s++) {
+                forests[s] = readForest(workers[s], vertices[s]);
+                int status = workers[s].waitFor();
+                if (status != 0) {
+                    throw new IllegalStateException("Shard worker " + s + " of graph " + graph.getId() + " exited with status " + status);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Sharded Kruskal failed for graph " + graph.getId(), e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for shard workers of graph " + graph.getId(), e);
+        } finally {
+            for (Process worker : workers) {
+                if (worker != null && worker.isAlive()) {
+                    worker.destroyForcibly();
+                }
+            }
+        }
+
+        long mergeStart = Metrics.now();
+        int candidates = cut;
+        for (int[] forest : forests) {
+            candidates += forest.length / 3;
+        }
+        int[] from = new int[candidates];
+        int[] to = new int[candidates];
+        int[] weight = new int[candidates];
+        int e = 0;
+        for (int[] forest : forests) {
+            for (int i = 0; i < forest.length; i += 3) {
+                from[e] = forest[i];
+                to[e] = forest[i + 1];
+                weight[e++] = forest[i + 2];
+            }
+        }
+        for (int cutEdge : cutEdges) {
+            from[e] = g.from(cutEdge);
+            to[e] = g.to(cutEdge);
+            weight[e++] = g.weight(cutEdge);
+        }
+        CompactGraph merged = g.withEdges(from, to, weight, candidates);
+        MSTResult mst = MSTAlgorithm.kruskalMST(new Graph(graph.getId(), merged));
+
+        if (Metrics.ENABLED) {
+            metrics.addPhase(PhaseMetrics.Phase.PARTITION, shardStart - partitionStart);
+            metrics.addPhase(PhaseMetrics.Phase.SHARD_WORKERS, mergeStart - shardStart);
+            metrics.count(PhaseMetrics.Counter.EDGES_SCANNED, m);
+            metrics.merge(mst.getMetrics());
+        }
+        return MSTResult.of(mst.getMstEdges(), mst.getTotalWeight(), metrics, startTime, mst.isConnected());
+    }
+
+    // shards are consecutive runs of a breadth-first order, so on road-like graphs most edges stay
+    // inside a shard and few cross to the merge step
+    static int[][] partition(CompactGraph g, int k, int[] shard, int[] local) {
+        int n = g.vertexCount();
+        int[] order = new int[n];
+        boolean[] visited = new boolean[n];
+        int tail = 0;
+        for (int root = 0; root < n; root++) {
+            if (visited[root]) {
+                continue;
+            }
+            visited[root] = true;
+            int head = tail;
+            order[tail++] = root;
+            while (head < tail) {
+                int u = order[head++];
+                for (int i = g.offset(u); i < g.offset(u + 1); i++) {
+                    int v = g.target(i);
+                    if (!visited[v]) {
+                        visited[v] = true;
+                        order[tail++] = v;
+                    }
+                }
+            }
+        }
+        int[][] vertices = new int[k][];
+        for (int s = 0; s < k; s++) {
+            int first = (int) ((long) s * n / k);
+            int last = (int) ((long) (s + 1) * n / k);
+            vertices[s] = Arrays.copyOfRange(order, first, last);
+            for (int i = 0; i < vertices[s].length; i++) {
+                shard[vertices[s][i]] = s;
+                local[vertices[s][i]] = i;
+            }
+        }
+        return vertices;
+    }
+
+    private static Process startWorker(String workerHeap) throws IOException {
+        List<String> command = new ArrayList<>();
+        command.add(Paths.get(System.getProperty("java.home"), "bin", "java").toString());
+        if (workerHeap != null) {
+            command.add("-Xmx" + workerHeap);
+        }
+        if (!Metrics.ENABLED) {
+            command.add("-Dmst.metrics=off");
+        }
+        command.add("-cp");
+        command.add(System.getProperty("java.class.path"));
+        command.add(ShardedMST.class.getName());
+        command.add("worker");
+        return new ProcessBuilder(command).redirectError(ProcessBuilder.Redirect.INHERIT).start();
+    }
+
+    // forest edges come back as (local from, local to, weight) and are mapped to global ids here
+    private static int[] readForest(Process worker, int[] vertices) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(worker.getInputStream(), PIPE_BUFFER_BYTES))) {
+            int size = in.readInt();
+            int[] forest = new int[3 * size];
+            for (int i = 0; i < forest.length; i += 3) {
+                forest[i] = vertices[in.readInt()];
+                forest[i + 1] = vertices[in.readInt()];
+                forest[i + 2] = in.readInt();
+            }
+            return forest;
+        }
+    }
+
+    static void worker(InputStream input, OutputStream output) throws IOException {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(input, PIPE_BUFFER_BYTES));
+        int n = in.readInt();
+        int m = in.readInt();
+        int[] from = new int[m];
+        int[] to = new int[m];
+        int[] weight = new int[m];
+        for (int e = 0; e < m; e++) {
+            from[e] = in.readInt();
+            to[e] = in.readInt();
+            weight[e] = in.readInt();
+        }
+        // vertices are named by their local id, which is all the coordinator needs back
+        String[] names = new String[n];
+        for (int v = 0; v < n; v++) {
+            names[v] = Integer.toString(v);
+        }
+        CompactGraph g = new CompactGraph(names, Collections.emptyMap(), from, to, weight, m);
+        MSTResult forest = MSTAlgorithm.kruskalMST(new Graph(0, g));
+
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(output, PIPE_BUFFER_BYTES));
+        out.writeInt(forest.getMstEdges().size());
+        for (Edge edge : forest.getMstEdges()) {
+            out.writeInt(Integer.parseInt(edge.getFrom()));
+            out.writeInt(Integer.parseInt(edge.getTo()));
+            out.writeInt(edge.getWeight());
+        }
+        out.flush();
+    }
+
+    // child JVM entry point, started by startWorker
+    public static void main(String[] args) throws IOException {
+        if (args.length != 1 || !args[0].equals("worker")) {
+            System.err.println("Usage: ShardedMST worker (shard edges on stdin, forest on stdout)");
+            System.exit(2);
+        }
+        worker(System.in, System.out);
+    }
+}
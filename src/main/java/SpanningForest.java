@@ -0,0 +1,161 @@
+import java.util.*;
+import java.util.concurrent.*;
+
+public class SpanningForest {
+    public static MSTResult run(Graph graph) {
+        return run(graph, ForkJoinPool.commonPool());
+    }
+
+    public static MSTResult run(Graph graph, ForkJoinPool pool) {
+        long startTime = System.nanoTime();
+        PhaseMetrics metrics = Metrics.start("forest");
+        CompactGraph g = graph.getCompact();
+        int n = g.vertexCount();
+        int m = g.edgeCount();
+
+        long labelStart = Metrics.now();
+        int[] component = new int[n];
+        Arrays.fill(component, -1);
+        int[] vertexOrder = new int[n];
+        int[] localId = new int[n];
+        int[] componentStart = new int[16];
+        int components = 0;
+        int tail = 0;
+        for (int root = 0; root < n; root++) {
+            if (component[root] >= 0) {
+                continue;
+            }
+            if (components + 1 == componentStart.length) {
+                componentStart = Arrays.copyOf(componentStart, componentStart.length * 2);
+            }
+            int start = tail;
+            componentStart[components] = start;
+            component[root] = components;
+            vertexOrder[tail++] = root;
+            for (int head = start; head < tail; head++) {
+                int v = vertexOrder[head];
+                localId[v] = head - start;
+                for (int k = g.offset(v); k < g.offset(v + 1); k++) {
+                    int w = g.target(k);
+                    if (component[w] < 0) {
+                        component[w] = components;
+                        vertexOrder[tail++] = w;
+                    }
+                }
+            }
+            components++;
+        }
+        componentStart[components] = n;
+
+        int[] edgeStart = new int[components + 1];
+        for (int e = 0; e < m; e++) {
+            edgeStart[component[g.from(e)] + 1]++;
+        }
+        for (int c = 0; c < components; c++) {
+            edgeStart[c + 1] += edgeStart[c];
+        }
+        long[] keys = new long[m];
+        int[] cursor = Arrays.copyOf(edgeStart, components);
+        for (int e = 0; e < m; e++) {
+            keys[cursor[component[g.from(e)]]++] = LongMinHeap.pack(g.weight(e), e);
+        }
+
+        // small components are batched so every task carries at least a chunk's worth of edges
+        int[] groupStart = new int[components + 1];
+        int groups = 0;
+        for (int c = 0; c < components; ) {
+            groupStart[groups++] = c;
+            int edges = 0;
+            while (c < components && edges < ForkJoinChunks.MIN_CHUNK_SIZE) {
+                edges += edgeStart[c + 1] - edgeStart[c];
+                c++;
+            }
+        }
+        groupStart[groups] = components;
+
+        long solveStart = Metrics.now();
+        int[] treeEdges = new int[n - components];
+        int[] componentCost = new int[components];
+        long[] buffer = new long[m];
+        long[] scanned = new long[groups];
+        long[] finds = new long[groups];
+        long[] unions = new long[groups];
+        int[] starts = componentStart;
+        ForkJoinChunks.forEachChunk(pool, groups, group -> {
+            for (int c = groupStart[group]; c < groupStart[group + 1]; c++) {
+                int size = starts[c + 1] - starts[c];
+                if (size == 1) {
+                    continue;
+                }
+                int lo = edgeStart[c];
+                int hi = edgeStart[c + 1];
+                EdgeSorter.radixSort(keys, lo, hi, buffer);
+
+                DSU dsu = new DSU(size);
+                int out = starts[c] - c;
+                int end = out + size - 1;
+                int cost = 0;
+                int i = lo;
+                while (out < end) {
+                    int e = LongMinHeap.valueOf(keys[i++]);
+                    if (dsu.union(localId[g.from(e)], localId[g.to(e)])) {
+                        treeEdges[out++] = e;
+                        cost += g.weight(e);
+                    }
+                }
+                componentCost[c] = cost;
+                if (Metrics.ENABLED) {
+                    scanned[group] += i - lo;
+                    finds[group] += dsu.getFinds();
+                    unions[group] += dsu.getUnions();
+                }
+            }
+        });
+
+        long assemblyStart = Metrics.now();
+        List<Edge> mstEdges = new ArrayList<>(treeEdges.length);
+        for (int e : treeEdges) {
+            mstEdges.add(g.toEdge(e));
+        }
+        List<MSTComponent> componentResults = new ArrayList<>(components);
+        int totalWeight = 0;
+        for (int c = 0; c < components; c++) {
+            int size = componentStart[c + 1] - componentStart[c];
+            int first = componentStart[c] - c;
+            componentResults.add(new MSTComponent(g.name(vertexOrder[componentStart[c]]), size,
+                    mstEdges.subList(first, first + size - 1), componentCost[c]));
+            totalWeight += componentCost[c];
+        }
+
+        if (Metrics.ENABLED) {
+            metrics.addPhase(PhaseMetrics.Phase.ADJACENCY_BUILD, g.adjacencyNanos() + (solveStart - labelStart));
+            metrics.addPhase(PhaseMetrics.Phase.UNION_FIND, assemblyStart - solveStart);
+            metrics.phase(PhaseMetrics.Phase.RESULT_ASSEMBLY, assemblyStart);
+            metrics.count(PhaseMetrics.Counter.EDGES_SCANNED, 2L * m + Arrays.stream(scanned).sum());
+            metrics.count(PhaseMetrics.Counter.FINDS, Arrays.stream(finds).sum());
+            metrics.count(PhaseMetrics.Counter.UNIONS, Arrays.stream(unions).sum());
+        }
+        MSTResult result = MSTResult.of(mstEdges, totalWeight, metrics, startTime, components <= 1);
+        result.components = componentResults;
+        return result;
+    }
+}
+
+class MSTComponent {
+    String root;
+    int vertexCount;
+    List<Edge> mstEdges;
+    int totalWeight;
+
+    public MSTComponent(String root, int vertexCount, List<Edge> mstEdges, int totalWeight) {
+        this.root = root;
+        this.vertexCount = vertexCount;
+        this.mstEdges = mstEdges;
+        this.totalWeight = totalWeight;
+    }
+
+    public String getRoot() { return root; }
+    public int getVertexCount() { return vertexCount; }
+    public List<Edge> getMstEdges() { return mstEdges; }
+    public int getTotalWeight() { return totalWeight; }
+}
@@ -0,0 +1,413 @@
+import java.io.*;
+import java.nio.charset.*;
+import java.nio.file.*;
+import java.util.*;
+import java.util.function.*;
+
+public class StreamingGraphReader implements Iterator<Graph>, Closeable {
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final Reader reader;
+    private final char[] buffer = new char[BUFFER_SIZE];
+    private int position;
+    private int limit;
+    private long consumed;
+    private final StringBuilder text = new StringBuilder();
+
+    private boolean started;
+    private boolean pending;
+    private boolean finished;
+
+    public StreamingGraphReader(Reader reader) {
+        this.reader = reader;
+    }
+
+    public static StreamingGraphReader open(String filename) throws IOException {
+        return new StreamingGraphReader(Files.newBufferedReader(Paths.get(filename), StandardCharsets.UTF_8));
+    }
+
+    public static Graph readSingleGraph(Reader reader) {
+        StreamingGraphReader graphs = new StreamingGraphReader(reader);
+        Graph graph = graphs.readGraph();
+        graphs.skipWhitespace();
+        if (graphs.peekOrEnd() != -1) {
+            throw graphs.error("Unexpected content after the graph object");
+        }
+        return graph;
+    }
+
+    public static void forEachGraph(String filename, Consumer<Graph> consumer) throws IOException {
+        try (StreamingGraphReader graphs = open(filename)) {
+            while (graphs.hasNext()) {
+                consumer.accept(graphs.next());
+            }
+        }
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (pending) {
+            return true;
+        }
+        if (finished) {
+            return false;
+        }
+        if (!started) {
+            seekGraphsArray();
+            started = true;
+            skipWhitespace();
+            if (peek() == ']') {
+                read();
+                finished = true;
+                return false;
+            }
+        } else if (!nextMember(']')) {
+            finished = true;
+            return false;
+        }
+        pending = true;
+        return true;
+    }
+
+    @Override
+    public Graph next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        pending = false;
+        return readGraph();
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    private void seekGraphsArray() {
+        expect('{');
+        skipWhitespace();
+        if (peek() == '}') {
+            throw error("Missing \"graphs\" array");
+        }
+        while (true) {
+            String key = readString();
+            expect(':');
+            if (key.equals("graphs")) {
+                expect('[');
+                return;
+            }
+            skipValue();
+            skipWhitespace();
+            char c = read();
+            if (c == '}') {
+                throw error("Missing \"graphs\" array");
+            }
+            if (c != ',') {
+                throw error("Expected ',' or '}' but found '" + c + "'");
+            }
+        }
+    }
+
+    private Graph readGraph() {
+        CompactGraph.Builder builder = new CompactGraph.Builder();
+        Integer id = null;
+        boolean hasNodes = false;
+        boolean hasEdges = false;
+        boolean hasCoordinates = false;
+
+        expect('{');
+        skipWhitespace();
+        if (peek() != '}') {
+            do {
+                String key = readString();
+                expect(':');
+                switch (key) {
+                    case "id":
+                        id = (int) readNumber();
+                        break;
+                    case "nodes":
+                        hasCoordinates = readNodes(builder);
+                        hasNodes = true;
+                        break;
+                    case "edges":
+                        readEdges(builder);
+                        hasEdges = true;
+                        break;
+                    default:
+                        skipValue();
+                }
+            } while (nextMember('}'));
+        } else {
+            read();
+        }
+
+        // point sets may leave the edges out; the Euclidean engine derives them from the coordinates
+        if (id == null || !hasNodes || !(hasEdges || hasCoordinates)) {
+            throw error("Graph object requires \"id\", \"nodes\" and \"edges\"");
+        }
+        try {
+            return new Graph(id, builder.build());
+        } catch (IllegalArgumentException e) {
+            throw error(e.getMessage() + " in graph " + id);
+        }
+    }
+
+    private boolean readNodes(CompactGraph.Builder builder) {
+        expect('[');
+        skipWhitespace();
+        if (peek() == ']') {
+            read();
+            return false;
+        }
+        boolean hasCoordinates = false;
+        do {
+            skipWhitespace();
+            if (peek() == '{') {
+                readPoint(builder);
+                hasCoordinates = true;
+            } else {
+                builder.addVertex(readString());
+            }
+        } while (nextMember(']'));
+        return hasCoordinates;
+    }
+
+    private void readPoint(CompactGraph.Builder builder) {
+        String name = null;
+        double x = Double.NaN;
+        double y = Double.NaN;
+        expect('{');
+        do {
+            String key = readString();
+            expect(':');
+            switch (key) {
+                case "id":
+                    name = readString();
+                    break;
+                case "x":
+                    x = readDouble();
+                    break;
+                case "y":
+                    y = readDouble();
+                    break;
+                default:
+                    skipValue();
+            }
+        } while (nextMember('}'));
+        if (name == null || Double.isNaN(x) || Double.isNaN(y)) {
+            throw error("Node object requires \"id\", \"x\" and \"y\"");
+        }
+        builder.addVertex(name, x, y);
+    }
+
+    private void readEdges(CompactGraph.Builder builder) {
+        expect('[');
+        skipWhitespace();
+        if (peek() == ']') {
+            read();
+            return;
+        }
+        do {
+            String from = null;
+            String to = null;
+            long weight = 0;
+            boolean hasWeight = false;
+            expect('{');
+            do {
+                String key = readString();
+                expect(':');
+                switch (key) {
+                    case "from":
+                        from = readString();
+                        break;
+                    case "to":
+                        to = readString();
+                        break;
+                    case "weight":
+                        weight = readNumber();
+                        hasWeight = true;
+                        break;
+                    default:
+                        skipValue();
+                }
+            } while (nextMember('}'));
+            if (from == null || to == null || !hasWeight) {
+                throw error("Edge requires \"from\", \"to\" and \"weight\"");
+            }
+            builder.addEdge(from, to, (int) weight);
+        } while (nextMember(']'));
+    }
+
+    private boolean nextMember(char close) {
+        skipWhitespace();
+        char c = read();
+        if (c == ',') {
+            return true;
+        }
+        if (c == close) {
+            return false;
+        }
+        throw error("Expected ',' or '" + close + "' but found '" + c + "'");
+    }
+
+    private void skipValue() {
+        skipWhitespace();
+        char c = peek();
+        if (c == '"') {
+            readString();
+        } else if (c == '{' || c == '[') {
+            read();
+            char close = c == '{' ? '}' : ']';
+            skipWhitespace();
+            if (peek() == close) {
+                read();
+                return;
+            }
+            do {
+                if (close == '}') {
+                    readString();
+                    expect(':');
+                }
+                skipValue();
+            } while (nextMember(close));
+        } else {
+            text.setLength(0);
+            while (!isDelimiter(peekOrEnd())) {
+                text.append(read());
+            }
+            if (text.length() == 0) {
+                throw error("Unexpected character '" + c + "'");
+            }
+        }
+    }
+
+    private long readNumber() {
+        skipWhitespace();
+        text.setLength(0);
+        while (!isDelimiter(peekOrEnd())) {
+            text.append(read());
+        }
+        String token = text.toString();
+        try {
+            if (token.indexOf('.') >= 0 || token.indexOf('e') >= 0 || token.indexOf('E') >= 0) {
+                return (long) Double.parseDouble(token);
+            }
+            return Long.parseLong(token);
+        } catch (NumberFormatException e) {
+            throw error("Invalid number '" + token + "'");
+        }
+    }
+
+    private double readDouble() {
+        skipWhitespace();
+        text.setLength(0);
+        while (!isDelimiter(peekOrEnd())) {
+            text.append(read());
+        }
+        String token = text.toString();
+        try {
+            double value = Double.parseDouble(token);
+            if (Double.isInfinite(value)) {
+                throw new NumberFormatException();
+            }
+            return value;
+        } catch (NumberFormatException e) {
+            throw error("Invalid number '" + token + "'");
+        }
+    }
+
+    private String readString() {
+        expect('"');
+        text.setLength(0);
+        while (true) {
+            char c = read();
+            if (c == '"') {
+                return text.toString();
+            }
+            if (c != '\\') {
+                text.append(c);
+                continue;
+            }
+            char escaped = read();
+            switch (escaped) {
+                case 'b': text.append('\b'); break;
+                case 'f': text.append('\f'); break;
+                case 'n': text.append('\n'); break;
+                case 'r': text.append('\r'); break;
+                case 't': text.append('\t'); break;
+                case 'u':
+                    int code = 0;
+                    for (int i = 0; i < 4; i++) {
+                        int digit = Character.digit(read(), 16);
+                        if (digit < 0) {
+                            throw error("Invalid unicode escape");
+                        }
+                        code = code * 16 + digit;
+                    }
+                    text.append((char) code);
+                    break;
+                default:
+                    text.append(escaped);
+            }
+        }
+    }
+
+    private static boolean isDelimiter(int c) {
+        return c < 0 || c == ',' || c == '}' || c == ']' || Character.isWhitespace(c);
+    }
+
+    private void expect(char expected) {
+        skipWhitespace();
+        char c = read();
+        if (c != expected) {
+            throw error("Expected '" + expected + "' but found '" + c + "'");
+        }
+    }
+
+    private void skipWhitespace() {
+        while (Character.isWhitespace(peekOrEnd())) {
+            position++;
+        }
+    }
+
+    private char peek() {
+        int c = peekOrEnd();
+        if (c < 0) {
+            throw error("Unexpected end of input");
+        }
+        return (char) c;
+    }
+
+    private int peekOrEnd() {
+        if (position == limit && !fill()) {
+            return -1;
+        }
+        return buffer[position];
+    }
+
+    private char read() {
+        char c = peek();
+        position++;
+        return c;
+    }
+
+    private boolean fill() {
+        try {
+            consumed += limit;
+            position = 0;
+            limit = 0;
+            int n = reader.read(buffer, 0, buffer.length);
+            if (n <= 0) {
+                return false;
+            }
+            limit = n;
+            return true;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private RuntimeException error(String message) {
+        return new RuntimeException("Error parsing JSON: " + message + " at character " + (consumed + position));
+    }
+}
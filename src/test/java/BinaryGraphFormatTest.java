@@ -0,0 +1,94 @@
+import static org.junit.Assert.*;
+
+import java.io.*;
+import java.util.*;
+import org.junit.*;
+import org.junit.rules.*;
+
+public class BinaryGraphFormatTest {
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
+
+    private List<Graph> expected;
+    private List<Graph> mapped;
+
+    @Before
+    public void convertSampleInput() throws IOException {
+        String binary = temp.getRoot().toPath().resolve("graphs.mstg").toString();
+        BinaryGraphFormat.convert("input.json", binary, true);
+        expected = new ArrayList<>();
+        StreamingGraphReader.forEachGraph("input.json", expected::add);
+        mapped = BinaryGraphFormat.load(binary);
+    }
+
+    @Test
+    public void kruskalRunsOnMappedGraphs() {
+        assertEquals(expected.size(), mapped.size());
+        for (int i = 0; i < expected.size(); i++) {
+            MSTResult json = MSTAlgorithm.kruskalMST(expected.get(i));
+            MSTResult binary = MSTAlgorithm.kruskalMST(mapped.get(i));
+            assertEquals("graph " + expected.get(i).getId(), json.getTotalWeight(), binary.getTotalWeight());
+            assertEquals(json.getMstEdges().size(), binary.getMstEdges().size());
+        }
+    }
+
+    @Test
+    public void sampleInputRoundTrips() {
+        assertRoundTrip(expected, mapped);
+    }
+
+    @Test
+    public void randomGraphsRoundTripWithAndWithoutCsr() throws IOException {
+        Random random = new Random(7);
+        List<Graph> graphs = new ArrayList<>();
+        for (int id = 0; id < 50; id++) {
+            int n = 1 + random.nextInt(60);
+            int m = random.nextInt(4 * n + 1);
+            List<String> vertices = new ArrayList<>();
+            for (int v = 0; v < n; v++) {
+                // non-ASCII names exercise the UTF-8 name table
+                vertices.add((v % 3 == 0 ? "Алматы-" : "v") + v);
+            }
+            List<Edge> edges = new ArrayList<>();
+            for (int e = 0; e < m; e++) {
+                edges.add(new Edge(vertices.get(random.nextInt(n)), vertices.get(random.nextInt(n)), random.nextInt(1000) - 100));
+            }
+            graphs.add(new Graph(id, CompactGraph.of(vertices, edges)));
+        }
+        for (boolean csr : new boolean[] { true, false }) {
+            String binary = temp.newFile("random-" + csr + ".mstg").toString();
+            BinaryGraphFormat.write(graphs, binary, csr);
+            assertRoundTrip(graphs, BinaryGraphFormat.load(binary));
+        }
+    }
+
+    private static void assertRoundTrip(List<Graph> expected, List<Graph> actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            Graph json = expected.get(i);
+            Graph binary = actual.get(i);
+            String graph = "graph " + json.getId();
+            assertEquals(graph, json.getId(), binary.getId());
+            assertEquals(graph, json.getVertices(), binary.getVertices());
+            assertEquals(graph, json.getEdgeCount(), binary.getEdgeCount());
+            for (int e = 0; e < json.getEdgeCount(); e++) {
+                Edge a = json.getEdges().get(e);
+                Edge b = binary.getEdges().get(e);
+                assertEquals(graph + " edge " + e, a.getFrom(), b.getFrom());
+                assertEquals(graph + " edge " + e, a.getTo(), b.getTo());
+                assertEquals(graph + " edge " + e, a.getWeight(), b.getWeight());
+            }
+            for (boolean eager : new boolean[] { false, true }) {
+                MSTResult primJson = MSTAlgorithm.primMST(json, eager);
+                MSTResult primBinary = MSTAlgorithm.primMST(binary, eager);
+                assertEquals(graph + " prim", primJson.getTotalWeight(), primBinary.getTotalWeight());
+                assertEquals(graph + " prim", primJson.isConnected(), primBinary.isConnected());
+            }
+            MSTResult kruskalJson = MSTAlgorithm.kruskalMST(json);
+            MSTResult kruskalBinary = MSTAlgorithm.kruskalMST(binary);
+            assertEquals(graph + " kruskal", kruskalJson.getTotalWeight(), kruskalBinary.getTotalWeight());
+            assertEquals(graph + " kruskal", kruskalJson.getMstEdges().size(), kruskalBinary.getMstEdges().size());
+            assertEquals(graph + " kruskal", kruskalJson.isConnected(), kruskalBinary.isConnected());
+        }
+    }
+}
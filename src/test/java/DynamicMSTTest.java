@@ -0,0 +1,124 @@
+import static org.junit.Assert.*;
+
+import java.io.*;
+import java.util.*;
+import org.junit.*;
+
+public class DynamicMSTTest {
+    @Test
+    public void matchesRecomputationOnRandomUpdates() {
+        Random random = new Random(42);
+        for (int run = 0; run < 200; run++) {
+            int n = 1 + random.nextInt(40);
+            int m = random.nextInt(3 * n + 1);
+            int maxWeight = 1 + random.nextInt(50);
+            List<String> vertices = new ArrayList<>();
+            for (int v = 0; v < n; v++) {
+                vertices.add("v" + v);
+            }
+            List<Edge> edges = new ArrayList<>();
+            for (int e = 0; e < m; e++) {
+                edges.add(new Edge("v" + random.nextInt(n), "v" + random.nextInt(n), random.nextInt(maxWeight)));
+            }
+            Graph graph = new Graph(run, CompactGraph.of(vertices, edges));
+            DynamicMST dynamic = new DynamicMST(graph, MSTAlgorithm.kruskalMST(graph));
+
+            List<Integer> live = new ArrayList<>();
+            for (int e = 0; e < m; e++) {
+                live.add(e);
+            }
+            for (int step = 0; step < 200; step++) {
+                int op = live.isEmpty() ? 0 : random.nextInt(4);
+                String action;
+                if (op == 0) {
+                    int e = dynamic.insertEdge("v" + random.nextInt(n), "v" + random.nextInt(n), random.nextInt(maxWeight));
+                    live.add(e);
+                    action = "insert " + e;
+                } else {
+                    int index = random.nextInt(live.size());
+                    int e = live.get(index);
+                    if (op == 1) {
+                        dynamic.decreaseWeight(e, dynamic.getWeight(e) - random.nextInt(maxWeight));
+                        action = "decrease " + e;
+                    } else if (op == 2) {
+                        dynamic.increaseWeight(e, dynamic.getWeight(e) + random.nextInt(maxWeight));
+                        action = "increase " + e;
+                    } else {
+                        dynamic.deleteEdge(e);
+                        live.set(index, live.get(live.size() - 1));
+                        live.remove(live.size() - 1);
+                        action = "delete " + e;
+                    }
+                }
+
+                MSTResult expected = MSTAlgorithm.kruskalMST(dynamic.snapshot(run));
+                String label = "graph " + run + ", step " + step + " (" + action + ")";
+                assertEquals(label, expected.getTotalWeight(), dynamic.getTotalWeight());
+                assertEquals(label, expected.getMstEdges().size(), dynamic.getTreeSize());
+                assertEquals(label, expected.isConnected(), dynamic.isConnected());
+            }
+        }
+    }
+
+    @Test
+    public void matchesRecomputationOnLargerGraphsUnderDeletes() {
+        // bigger graphs reach deeper levels; inserts and decreases in between leave cheap edges low
+        Random random = new Random(7);
+        for (int run = 0; run < 20; run++) {
+            int n = 100 + random.nextInt(400);
+            int m = n + random.nextInt(3 * n);
+            int maxWeight = 1 + random.nextInt(random.nextBoolean() ? 5 : 1000);
+            List<String> vertices = new ArrayList<>();
+            for (int v = 0; v < n; v++) {
+                vertices.add("v" + v);
+            }
+            List<Edge> edges = new ArrayList<>();
+            for (int v = 1; v < n; v++) {
+                edges.add(new Edge("v" + v, "v" + (v - 1), random.nextInt(maxWeight)));
+            }
+            for (int e = n - 1; e < m; e++) {
+                edges.add(new Edge("v" + random.nextInt(n), "v" + random.nextInt(n), random.nextInt(maxWeight)));
+            }
+            Graph graph = new Graph(run, CompactGraph.of(vertices, edges));
+            DynamicMST dynamic = new DynamicMST(graph, MSTAlgorithm.kruskalMST(graph));
+
+            for (int step = 0; step < 400; step++) {
+                int e = random.nextInt(m);
+                String action;
+                if (random.nextInt(4) == 0) {
+                    int f = dynamic.insertEdge("v" + random.nextInt(n), "v" + random.nextInt(n), random.nextInt(maxWeight));
+                    dynamic.decreaseWeight(f, dynamic.getWeight(f) - random.nextInt(maxWeight));
+                    action = "insert and decrease " + f;
+                } else if (!dynamic.isTreeEdge(e)) {
+                    continue;
+                } else if (random.nextBoolean()) {
+                    dynamic.increaseWeight(e, dynamic.getWeight(e) + random.nextInt(2 * maxWeight));
+                    action = "increase " + e;
+                } else {
+                    dynamic.deleteEdge(e);
+                    action = "delete " + e;
+                }
+
+                if (step % 10 == 0) {
+                    MSTResult expected = MSTAlgorithm.kruskalMST(dynamic.snapshot(run));
+                    String label = "graph " + run + ", step " + step + " (" + action + ")";
+                    assertEquals(label, expected.getTotalWeight(), dynamic.getTotalWeight());
+                    assertEquals(label, expected.getMstEdges().size(), dynamic.getTreeSize());
+                    assertEquals(label, expected.isConnected(), dynamic.isConnected());
+                }
+            }
+        }
+    }
+
+    @Test
+    public void toResultMatchesKruskalOnSampleInput() throws IOException {
+        List<Graph> graphs = new ArrayList<>();
+        StreamingGraphReader.forEachGraph("input.json", graphs::add);
+        for (Graph graph : graphs) {
+            MSTResult expected = MSTAlgorithm.kruskalMST(graph);
+            MSTResult actual = new DynamicMST(graph, expected).toResult();
+            assertEquals("graph " + graph.getId(), expected.getTotalWeight(), actual.getTotalWeight());
+            assertEquals("graph " + graph.getId(), expected.getMstEdges().size(), actual.getMstEdges().size());
+        }
+    }
+}
@@ -0,0 +1,161 @@
+import static org.junit.Assert.*;
+
+import java.util.*;
+import org.junit.*;
+
+public class EuclideanMSTTest {
+    @Test
+    public void matchesBruteForceOnRandomPoints() {
+        Random random = new Random(42);
+        for (int run = 0; run < 100; run++) {
+            int n = 1 + random.nextInt(300);
+            double scale = random.nextBoolean() ? 100 : 1e6;
+            double[] points = new double[2 * n];
+            for (int i = 0; i < 2 * n; i++) {
+                points[i] = (random.nextDouble() - 0.5) * scale;
+            }
+            assertSameTree("random " + run, points);
+        }
+    }
+
+    @Test
+    public void matchesBruteForceOnGrids() {
+        // equal spacing makes every point tie with up to four neighbours, in every octant boundary
+        Random random = new Random(42);
+        for (int run = 0; run < 30; run++) {
+            int width = 1 + random.nextInt(20);
+            int height = 1 + random.nextInt(20);
+            double spacing = 1 + random.nextInt(3);
+            double[] points = new double[2 * width * height];
+            int i = 0;
+            for (int r = 0; r < height; r++) {
+                for (int c = 0; c < width; c++) {
+                    points[i++] = c * spacing;
+                    points[i++] = r * spacing;
+                }
+            }
+            shuffle(points, random);
+            assertSameTree("grid " + width + "x" + height, points);
+        }
+    }
+
+    @Test
+    public void matchesBruteForceOnCollinearPoints() {
+        Random random = new Random(42);
+        double[][] directions = {{1, 0}, {0, 1}, {1, 1}, {1, -1}, {3, 7}};
+        for (int run = 0; run < 40; run++) {
+            double[] direction = directions[run % directions.length];
+            int n = 1 + random.nextInt(100);
+            double[] points = new double[2 * n];
+            for (int i = 0; i < n; i++) {
+                double t = random.nextInt(1000) - 500;
+                points[2 * i] = 10 + t * direction[0];
+                points[2 * i + 1] = -20 + t * direction[1];
+            }
+            assertSameTree("collinear " + run, points);
+        }
+    }
+
+    @Test
+    public void matchesBruteForceWithDuplicatePoints() {
+        Random random = new Random(42);
+        for (int run = 0; run < 40; run++) {
+            int distinct = 1 + random.nextInt(20);
+            int n = distinct + random.nextInt(100);
+            double[] pool = new double[2 * distinct];
+            for (int i = 0; i < 2 * distinct; i++) {
+                pool[i] = random.nextInt(50) - (random.nextBoolean() ? 0.0 : 25.5);
+            }
+            pool[0] = 0.0;
+            pool[1] = 0.0;
+            double[] points = new double[2 * n];
+            for (int i = 0; i < n; i++) {
+                int p = random.nextInt(distinct);
+                // -0.0 and 0.0 must still be the same point
+                points[2 * i] = p == 0 && random.nextBoolean() ? -0.0 : pool[2 * p];
+                points[2 * i + 1] = pool[2 * p + 1];
+            }
+            assertSameTree("duplicates " + run, points);
+        }
+    }
+
+    private static void assertSameTree(String label, double[] points) {
+        int n = points.length / 2;
+        CompactGraph.Builder builder = new CompactGraph.Builder();
+        for (int v = 0; v < n; v++) {
+            builder.addVertex("p" + v, points[2 * v], points[2 * v + 1]);
+        }
+        MSTResult actual = EuclideanMST.run(new Graph(0, builder.build()));
+
+        assertEquals(label, bruteForcePrim(points), actual.getTotalWeight());
+        assertEquals(label, n - 1, actual.getMstEdges().size());
+        assertTrue(label, actual.isConnected());
+
+        // each edge must carry its rounded distance, and together they must span every point
+        int[] parent = new int[n];
+        for (int v = 0; v < n; v++) {
+            parent[v] = v;
+        }
+        for (Edge edge : actual.getMstEdges()) {
+            int u = Integer.parseInt(edge.getFrom().substring(1));
+            int v = Integer.parseInt(edge.getTo().substring(1));
+            String edgeLabel = label + ": " + edge.getFrom() + "-" + edge.getTo();
+            assertEquals(edgeLabel, distance(points, u, v), edge.getWeight());
+            int a = find(parent, u);
+            int b = find(parent, v);
+            assertNotEquals(edgeLabel, a, b);
+            parent[a] = b;
+        }
+    }
+
+    // O(n^2) Prim over the complete graph with the same rounded int weights
+    private static long bruteForcePrim(double[] points) {
+        int n = points.length / 2;
+        boolean[] inTree = new boolean[n];
+        int[] best = new int[n];
+        Arrays.fill(best, Integer.MAX_VALUE);
+        best[0] = 0;
+        long total = 0;
+        for (int step = 0; step < n; step++) {
+            int u = -1;
+            for (int v = 0; v < n; v++) {
+                if (!inTree[v] && (u == -1 || best[v] < best[u])) {
+                    u = v;
+                }
+            }
+            inTree[u] = true;
+            total += best[u];
+            for (int v = 0; v < n; v++) {
+                if (!inTree[v]) {
+                    best[v] = Math.min(best[v], distance(points, u, v));
+                }
+            }
+        }
+        return total;
+    }
+
+    private static int distance(double[] points, int u, int v) {
+        double dx = points[2 * u] - points[2 * v];
+        double dy = points[2 * u + 1] - points[2 * v + 1];
+        return (int) Math.rint(Math.sqrt(dx * dx + dy * dy));
+    }
+
+    private static int find(int[] parent, int x) {
+        while (parent[x] != x) {
+            x = parent[x];
+        }
+        return x;
+    }
+
+    private static void shuffle(double[] points, Random random) {
+        for (int i = points.length / 2 - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            double x = points[2 * i];
+            double y = points[2 * i + 1];
+            points[2 * i] = points[2 * j];
+            points[2 * i + 1] = points[2 * j + 1];
+            points[2 * j] = x;
+            points[2 * j + 1] = y;
+        }
+    }
+}
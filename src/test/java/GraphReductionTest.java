@@ -0,0 +1,107 @@
+import static org.junit.Assert.*;
+
+import java.io.*;
+import java.util.*;
+import java.util.function.*;
+import org.junit.*;
+
+public class GraphReductionTest {
+    @Test
+    public void matchesKruskalOnRandomMultigraphs() {
+        Random random = new Random(42);
+        for (int run = 0; run < 300; run++) {
+            Graph graph = randomMultigraph(run, random);
+            assertSameForest(graph, "kruskal", MSTAlgorithm::kruskalMST);
+            assertSameForest(graph, "forest", MSTAlgorithm::spanningForestMST);
+        }
+    }
+
+    @Test
+    public void matchesKruskalOnSampleInput() throws IOException {
+        List<Graph> graphs = new ArrayList<>();
+        StreamingGraphReader.forEachGraph("input.json", graphs::add);
+        for (Graph graph : graphs) {
+            assertSameForest(graph, "kruskal", MSTAlgorithm::kruskalMST);
+            assertSameForest(graph, "forest", MSTAlgorithm::spanningForestMST);
+        }
+    }
+
+    @Test
+    public void reducesEachGraphOnceAcrossEngines() {
+        Graph graph = randomMultigraph(0, new Random(7));
+        MSTResult kruskal = GraphReduction.around(MSTAlgorithm::kruskalMST).apply(graph);
+        MSTResult forest = GraphReduction.around(MSTAlgorithm::spanningForestMST).apply(graph);
+        assertNotNull(kruskal.getReduction());
+        assertSame(kruskal.getReduction(), forest.getReduction());
+    }
+
+    // chains of fresh vertices hung off random anchors, plus random edges with self-loops and repeated pairs
+    private static Graph randomMultigraph(int id, Random random) {
+        int core = 1 + random.nextInt(30);
+        int maxWeight = 1 + random.nextInt(random.nextBoolean() ? 5 : 1000);
+        List<String> vertices = new ArrayList<>();
+        List<Edge> edges = new ArrayList<>();
+        for (int v = 0; v < core; v++) {
+            vertices.add("v" + v);
+        }
+        int m = random.nextInt(3 * core + 1);
+        for (int e = 0; e < m; e++) {
+            String from = "v" + random.nextInt(core);
+            String to = random.nextInt(6) == 0 ? from : "v" + random.nextInt(core);
+            edges.add(new Edge(from, to, random.nextInt(maxWeight)));
+        }
+        int parallel = random.nextInt(edges.size() + 1);
+        for (int p = 0; p < parallel; p++) {
+            Edge edge = edges.get(random.nextInt(edges.size()));
+            edges.add(new Edge(edge.getTo(), edge.getFrom(), random.nextInt(maxWeight)));
+        }
+        int chains = random.nextInt(4);
+        for (int c = 0; c < chains; c++) {
+            String previous = vertices.get(random.nextInt(vertices.size()));
+            int length = 1 + random.nextInt(6);
+            for (int k = 0; k < length; k++) {
+                String next = "c" + c + "_" + k;
+                vertices.add(next);
+                edges.add(new Edge(previous, next, random.nextInt(maxWeight)));
+                previous = next;
+            }
+            // close some chains back into the core so they are paths, not just hanging leaves
+            if (random.nextBoolean()) {
+                edges.add(new Edge(previous, "v" + random.nextInt(core), random.nextInt(maxWeight)));
+            }
+        }
+        return new Graph(id, CompactGraph.of(vertices, edges));
+    }
+
+    private static void assertSameForest(Graph graph, String name, Function<Graph, MSTResult> engine) {
+        MSTResult expected = MSTAlgorithm.kruskalMST(graph);
+        MSTResult actual = GraphReduction.reduce(graph).run(engine);
+        String label = "graph " + graph.getId() + " via reduce+" + name;
+        assertEquals(label, expected.getTotalWeight(), actual.getTotalWeight());
+        assertEquals(label, expected.getMstEdges().size(), actual.getMstEdges().size());
+        assertEquals(label, expected.isConnected(), actual.isConnected());
+
+        // every returned edge must be an input edge, and together they must not close a cycle
+        Set<String> inputEdges = new HashSet<>();
+        for (Edge edge : graph.getEdges()) {
+            inputEdges.add(edge.getFrom() + "\u0000" + edge.getTo() + "\u0000" + edge.getWeight());
+            inputEdges.add(edge.getTo() + "\u0000" + edge.getFrom() + "\u0000" + edge.getWeight());
+        }
+        Map<String, String> parent = new HashMap<>();
+        for (Edge edge : actual.getMstEdges()) {
+            String edgeLabel = label + ": " + edge.getFrom() + "-" + edge.getTo();
+            assertTrue(edgeLabel, inputEdges.contains(edge.getFrom() + "\u0000" + edge.getTo() + "\u0000" + edge.getWeight()));
+            String a = find(parent, edge.getFrom());
+            String b = find(parent, edge.getTo());
+            assertNotEquals(edgeLabel, a, b);
+            parent.put(a, b);
+        }
+    }
+
+    private static String find(Map<String, String> parent, String x) {
+        while (parent.containsKey(x)) {
+            x = parent.get(x);
+        }
+        return x;
+    }
+}
@@ -0,0 +1,60 @@
+import static org.junit.Assert.*;
+
+import java.io.*;
+import java.util.*;
+import org.junit.*;
+import org.junit.rules.*;
+
+public class ShardedMSTTest {
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
+
+    @Test
+    public void matchesKruskalOnRandomGraphs() {
+        Random random = new Random(42);
+        for (int run = 0; run < 12; run++) {
+            int n = random.nextInt(200);
+            int m = n == 0 ? 0 : random.nextInt(4 * n + 1);
+            int maxWeight = 1 + random.nextInt(random.nextBoolean() ? 5 : 1000);
+            List<String> vertices = new ArrayList<>();
+            for (int v = 0; v < n; v++) {
+                vertices.add("v" + v);
+            }
+            List<Edge> edges = new ArrayList<>();
+            for (int e = 0; e < m; e++) {
+                edges.add(new Edge("v" + random.nextInt(n), "v" + random.nextInt(n), random.nextInt(maxWeight)));
+            }
+            Graph graph = new Graph(run, CompactGraph.of(vertices, edges));
+            assertSameForest(graph, 1 + random.nextInt(4));
+        }
+    }
+
+    @Test
+    public void runsOnMemoryMappedGraphs() throws IOException {
+        String binary = temp.getRoot().toPath().resolve("graphs.mstg").toString();
+        BinaryGraphFormat.convert("input.json", binary, true);
+        for (Graph graph : BinaryGraphFormat.load(binary)) {
+            assertSameForest(graph, 3);
+        }
+    }
+
+    private static void assertSameForest(Graph graph, int shards) {
+        MSTResult expected = MSTAlgorithm.kruskalMST(graph);
+        MSTResult actual = ShardedMST.run(graph, shards, "64m");
+        String label = "graph " + graph.getId() + " with " + shards + " shards";
+        assertEquals(label, expected.getTotalWeight(), actual.getTotalWeight());
+        assertEquals(label, expected.getMstEdges().size(), actual.getMstEdges().size());
+        assertEquals(label, expected.isConnected(), actual.isConnected());
+
+        // every returned edge must be an edge of the input graph
+        Set<String> inputEdges = new HashSet<>();
+        for (Edge edge : graph.getEdges()) {
+            inputEdges.add(edge.getFrom() + "\u0000" + edge.getTo() + "\u0000" + edge.getWeight());
+            inputEdges.add(edge.getTo() + "\u0000" + edge.getFrom() + "\u0000" + edge.getWeight());
+        }
+        for (Edge edge : actual.getMstEdges()) {
+            assertTrue(label + ": " + edge.getFrom() + "-" + edge.getTo(),
+                    inputEdges.contains(edge.getFrom() + "\u0000" + edge.getTo() + "\u0000" + edge.getWeight()));
+        }
+    }
+}